@@ -0,0 +1,224 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.RotatingFile;
+
+
+/** 
+ * Audit log of blacklist actions, written as newline-delimited JSON. <br>
+ * Actions are copied into preallocated records of a ring buffer, then written by batches 
+ * on a background thread, in a {@link RotatingFile}. If the buffer is full, records are dropped and counted.
+ */
+public class AuditLog {
+  public static final int capacity = 4096;
+  /** Maximum delay, in milliseconds, before writing a batch */
+  public static final long flushInterval = 1000;
+  public static final String directory = "audit", name = "kicks", extension = ".ndjson";
+  
+  private static final Logger logger = new Logger();
+  private static final Record[] records = new Record[capacity];
+  private static int head, size;
+  private static long dropped;
+  private static final Object fileLock = new Object();
+  private static RotatingFile file;
+  private static Thread thread;
+  
+  static {
+    for (int i=0; i<capacity; i++) records[i] = new Record();
+  }
+  
+  /** Starts the writer, or applies new settings. */
+  public static void start(arc.files.Fi folder) {
+    synchronized (fileLock) { configure(folder); }
+    
+    synchronized (AuditLog.class) {
+      if (thread == null) {
+        thread = new Thread(AuditLog::run, "SimpleBlacklist-Audit");
+        thread.setDaemon(true);
+        thread.start();
+      }
+    }
+  }
+  
+  private static void configure(arc.files.Fi folder) {
+    long maxSize = Config.auditMaxSize.get() * 1024L * 1024L, maxAge = Config.auditMaxAge.get() * 3_600_000L;
+    if (file == null) 
+      file = new RotatingFile(folder.child(directory).file(), name, extension, maxSize, maxAge, 
+                              Config.auditMaxFiles.get(), Config.auditGzip.get());
+    else {
+      file.maxSize = maxSize;
+      file.maxAge = maxAge;
+      file.maxFiles = Config.auditMaxFiles.get();
+      file.gzip = Config.auditGzip.get();
+    }
+  }
+  
+  /** Writes pending records and stops the writer. */
+  public static void stop() {
+    Thread t;
+    synchronized (AuditLog.class) {
+      t = thread;
+      thread = null;
+    }
+    if (t != null) {
+      t.interrupt();
+      try { t.join(2000); } 
+      catch (InterruptedException ignored) {}
+    }
+    
+    write();
+    synchronized (fileLock) {
+      try { if (file != null) file.close(); } 
+      catch (IOException e) { logger.err("Unable to close the audit log", e); }
+    }
+  }
+  
+  public static synchronized boolean running() {
+    return thread != null;
+  }
+  
+  /** 
+   * Records a blacklist action, with the current node.
+   * @param source what triggered the action, like {@code connect}, {@code rescan} or {@code sweep}
+   * @param mode the working mode applied, which can be the one of a group
+   */
+  public static void add(String source, String address, String uuid, String name, String normalised, 
+                         String entry, Config.WorkingMode mode) {
+    synchronized (AuditLog.class) {
+      if (thread == null) return;
+      if (size == capacity) {
+        dropped++;
+        return;
+      }
+      
+      Record r = records[(head + size++) % capacity];
+      r.time = System.currentTimeMillis();
+      r.source = source;
+      r.address = address;
+      r.uuid = uuid;
+      r.name = name;
+      r.normalised = normalised;
+      r.entry = entry;
+      r.mode = mode;
+    }
+  }
+  
+  private static void run() {
+    try {
+      while (true) {
+        Thread.sleep(flushInterval);
+        write();
+      }
+    } catch (InterruptedException ignored) {}
+  }
+  
+  /** Writes all pending records */
+  private static void write() {
+    StringBuilder builder = new StringBuilder();
+    long lost;
+    String node = Counters.node();
+    
+    synchronized (AuditLog.class) {
+      for (int i=0; i<size; i++) {
+        Record r = records[(head + i) % capacity];
+        r.write(builder, node);
+        r.clear();
+      }
+      head = (head + size) % capacity;
+      size = 0;
+      lost = dropped;
+      dropped = 0;
+    }
+    
+    if (builder.length() == 0) return;
+    byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+    
+    // Another lock, to not block the connect path while writing
+    synchronized (fileLock) {
+      try {
+        file.write(data, data.length);
+        file.flush();
+      } catch (IOException e) { 
+        logger.err("Unable to write the audit log", e); 
+      }
+    }
+    if (lost > 0) logger.warn("@ audit record(s) dropped, because too many were sent.", lost);
+  }
+  
+  
+  private static class Record {
+    long time;
+    String source, address, uuid, name, normalised, entry;
+    Config.WorkingMode mode;
+    
+    void write(StringBuilder out, String node) {
+      out.append("{\"time\":").append(time);
+      field(out, "source", source);
+      field(out, "ip", address);
+      field(out, "uuid", uuid);
+      field(out, "name", name);
+      field(out, "normalised", normalised);
+      field(out, "entry", entry);
+      field(out, "mode", mode.name());
+      field(out, "node", node);
+      out.append("}\n");
+    }
+    
+    void clear() {
+      source = address = uuid = name = normalised = entry = null;
+    }
+    
+    private static void field(StringBuilder out, String key, String value) {
+      out.append(",\"").append(key).append("\":");
+      if (value == null) {
+        out.append("null");
+        return;
+      }
+      
+      out.append('"');
+      for (int i=0; i<value.length(); i++) {
+        char c = value.charAt(i);
+        switch (c) {
+          case '"': out.append("\\\""); break;
+          case '\\': out.append("\\\\"); break;
+          case '\n': out.append("\\n"); break;
+          case '\r': out.append("\\r"); break;
+          case '\t': out.append("\\t"); break;
+          default:
+            if (c < 0x20) out.append(String.format("\\u%04x", (int)c));
+            else out.append(c);
+        }
+      }
+      out.append('"');
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+
+import arc.Core;
+import arc.struct.Seq;
+
+import mindustry.game.EventType.PlayerBanEvent;
+import mindustry.game.EventType.PlayerIpBanEvent;
+import mindustry.net.Administration.PlayerInfo;
+
+import static mindustry.Vars.netServer;
+
+
+/** 
+ * Queue of bans, applied in batches on the main thread. <br>
+ * Each {@link mindustry.net.Administration#banPlayerID(String)} or 
+ * {@link mindustry.net.Administration#banPlayerIP(String)} saves the whole player database, 
+ * so a flood of blacklisted clients is grouped to a single save.
+ */
+public class BanQueue {
+  /** Delay, in seconds, before applying the queued bans */
+  public static final float flushDelay = 2f;
+  
+  private static final Logger logger = new Logger();
+  private static final Seq<PendingBan> pendingUUIDs = new Seq<>(false, 16), pendingIPs = new Seq<>(false, 16);
+  private static boolean scheduled;
+  
+  /** Queue a ban of the {@code uuid}. The other informations are used to fill the account, if not already. */
+  public static synchronized void banUUID(String uuid, String ip, String name, String usid) {
+    pendingUUIDs.add(new PendingBan(uuid, ip, name, usid));
+    schedule();
+  }
+  
+  /** Queue a ban of the {@code ip}. */
+  public static synchronized void banIP(String ip) {
+    pendingIPs.add(new PendingBan(null, ip, null, null));
+    schedule();
+  }
+  
+  public static synchronized int size() {
+    return pendingUUIDs.size + pendingIPs.size;
+  }
+  
+  private static void schedule() {
+    if (scheduled) return;
+    scheduled = true;
+    arc.util.Timer.schedule(() -> Core.app.post(BanQueue::flush), flushDelay);
+  }
+  
+  /** Applies all queued bans. Must be called on the main thread. */
+  public static void flush() {
+    PendingBan[] uuids, ips;
+    synchronized (BanQueue.class) {
+      scheduled = false;
+      if (pendingUUIDs.isEmpty() && pendingIPs.isEmpty()) return;
+      uuids = pendingUUIDs.toArray(PendingBan.class);
+      ips = pendingIPs.toArray(PendingBan.class);
+      pendingUUIDs.clear();
+      pendingIPs.clear();
+    }
+
+    Seq<String> bannedUUIDs = new Seq<>(uuids.length), bannedIPs = new Seq<>(ips.length);
+    
+    for (PendingBan ban : uuids) {
+      PlayerInfo info = netServer.admins.getInfoOptional(ban.uuid);
+      if (info == null && ban.name != null) {
+        /* The player UUID will be banned.
+         * So we need to manually create an account
+         * and filling it with as much informations as possible, if not already.
+         * 
+         * This avoids to create empty accounts BUT not filling the server settings.
+         */
+        netServer.admins.updatePlayerJoined(ban.uuid, ban.ip, ban.name);
+        info = netServer.admins.getInfo(ban.uuid);
+        info.adminUsid = ban.usid;
+        // the client never joined the server, this value can be used as a filter, to know all invalid accounts
+        info.timesJoined = 0;
+      } else if (info == null) info = netServer.admins.getInfo(ban.uuid);
+      
+      if (info.banned) continue;
+      info.banned = true;
+      bannedUUIDs.add(ban.uuid);
+    }
+    
+    Seq<String> ipList = netServer.admins.getBannedIPs();
+    for (PendingBan ban : ips) {
+      if (ipList.contains(ban.ip, false)) continue;
+      ipList.add(ban.ip);
+      bannedIPs.add(ban.ip);
+    }
+    
+    if (bannedUUIDs.isEmpty() && bannedIPs.isEmpty()) return;
+    // Only one save for the whole batch
+    netServer.admins.save();
+    logger.debug("Applied @ UUID ban(s) and @ IP ban(s).", bannedUUIDs.size, bannedIPs.size);
+    
+    // Notify other plugins, like the administration would do
+    bannedUUIDs.each(uuid -> arc.Events.fire(new PlayerBanEvent(
+        mindustry.gen.Groups.player.find(p -> uuid.equals(p.uuid())), uuid)));
+    bannedIPs.each(ip -> arc.Events.fire(new PlayerIpBanEvent(ip)));
+  }
+  
+  
+  private static class PendingBan {
+    final String uuid, ip, name, usid;
+    
+    PendingBan(String uuid, String ip, String name, String usid) {
+      this.uuid = uuid;
+      this.ip = ip;
+      this.name = name;
+      this.usid = usid;
+    }
+  }
+}
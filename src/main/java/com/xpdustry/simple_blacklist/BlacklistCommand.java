@@ -28,7 +28,13 @@ package com.xpdustry.simple_blacklist;
 
 import java.util.regex.Pattern;
 
+import com.xpdustry.simple_blacklist.metrics.MetricsServer;
+import com.xpdustry.simple_blacklist.replication.Replication;
+import com.xpdustry.simple_blacklist.util.Addresses;
+import com.xpdustry.simple_blacklist.util.ListFile;
 import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.NameArena;
+import com.xpdustry.simple_blacklist.util.RegexAnalyzer;
 import com.xpdustry.simple_blacklist.util.Strings;
 
 import arc.struct.ObjectIntMap;
@@ -45,20 +51,23 @@ public class BlacklistCommand {
                   + "&lk|&fr " + Config.mode.desc +": @\n"
                   + "&lk|&fr " + Config.message.desc +": @\n"
                   + "&lk|&fr " + Config.ignoreAdmins.desc + ": @\n"
-                  + "&lk|&fr " + Config.nameCaseSensitive.desc + ": @\n",
+                  + "&lk|&fr " + Config.nameCaseSensitive.desc + ": @\n"
+                  + "&lk|&fr " + Config.throttleEnabled.desc + ": @\n",
                     Config.mode.get().desc, 
                     Config.message.get().isEmpty() ? "&fi(default)" : Config.message.get(),
                     Config.ignoreAdmins.get() ? "yes" : "no",
-                    Config.nameCaseSensitive.get() ? "yes" : "no");
+                    Config.nameCaseSensitive.get() ? "yes" : "no",
+                    throttleDesc());
         
         StringBuilder builder = new StringBuilder();
         
         builder.append(Config.namesList.desc).append(": [")
-               .append(Config.namesList.get().isEmpty() ? "&lbempty&fr" : "total: &lb"+ Config.namesList.get().size)
+               .append(Config.names().isEmpty() ? "&lbempty&fr" : "total: &lb"+ Config.names().size)
                .append("&fr, ").append(Config.namesEnabled.get() ? "&lgenabled&fr" : "&lrdisabled&fr").append("]\n");
-        for (ObjectIntMap.Entry<String> e : Config.namesList.get()) 
-          builder.append("&lk|&fr ").append(e.key.replace("[", "[[")).append("  (uses: &lb").append(e.value)
-                 .append("&fr)\n");
+        for (NameArena.Entry e : Config.names()) 
+          builder.append("&lk|&fr ").append(e.key.replace("[", "[[")).append("  (uses: &lb")
+                 .append(Counters.localName(e.key)).append("&fr, cluster: &lb").append(e.value)
+                 .append(expiresDesc(Expiry.ofName(e.key), "&fr")).append("&fr)\n");
         
         logger.info(builder.toString());
         builder.setLength(0);
@@ -67,7 +76,9 @@ public class BlacklistCommand {
                .append(Config.regexList.get().isEmpty() ? "&lbempty&fr" : "total: &lb"+ Config.regexList.get().size)
                .append("&fr, ").append(Config.regexEnabled.get() ? "&lgenabled&fr" : "&lrdisabled&fr").append("]\n");
         for (ObjectIntMap.Entry<Pattern> e : Config.regexList.get()) 
-          builder.append("&lk|&fr ").append(e.key.pattern()).append("  (uses: &lb").append(e.value).append("&fr)\n");
+          builder.append("&lk|&fr ").append(e.key.pattern()).append("  (uses: &lb").append(Counters.localRegex(e.key))
+                 .append("&fr, cluster: &lb").append(e.value)
+                 .append(expiresDesc(Expiry.ofRegex(e.key.pattern()), "&fr")).append("&fr)\n");
  
         logger.info(builder.toString());
         
@@ -79,19 +90,24 @@ public class BlacklistCommand {
                                                                  Config.message.get());
         logger.info("&lk|&fr " + Config.ignoreAdmins.desc + ": @", Config.ignoreAdmins.get() ? "yes" : "no");
         logger.info("&lk|&fr " + Config.nameCaseSensitive.desc + ": @", Config.nameCaseSensitive.get() ? "yes" : "no");
+        logger.info("&lk|&fr " + Config.throttleEnabled.desc + ": @", throttleDesc());
   
         // Format the lists
-        Seq<String> left = Strings.lJust(Config.namesList.get().keys().toArray().map(s -> "&lk|&lw "+s), 
-                                         Strings.best(Config.namesList.get(), e -> e.key.length()+8)),
+        Seq<String> left = Strings.lJust(Config.names().keys().map(s -> "&lk|&lw "+s), 
+                                         Strings.best(Config.names(), e -> e.key.length()+8)),
                     right = Strings.lJust(Config.regexList.get().keys().toArray().map(s -> "  &lk|&lw "+s), 
                                           Strings.best(Config.regexList.get(), e -> e.key.pattern().length()+10));
   
-        left = Strings.sJust(left, Config.namesList.get().entries().toArray().map(t -> " &fi(uses: &lb"+t.value+"&lw)&fr"), 0);
-        right = Strings.sJust(right, Config.regexList.get().entries().toArray().map(t -> " &fi(uses: &lb"+t.value+"&lw)&fr"), 0);
+        left = Strings.sJust(left, Config.names().keys().map(k -> " &fi(uses: &lb"+
+                             Counters.localName(k)+"&lw, cluster: &lb"+Config.names().get(k, 0)+
+                             expiresDesc(Expiry.ofName(k), "&lw")+"&lw)&fr"), 0);
+        right = Strings.sJust(right, Config.regexList.get().keys().toArray().map(k -> " &fi(uses: &lb"+
+                              Counters.localRegex(k)+"&lw, cluster: &lb"+Config.regexList.get().get(k, 0)+
+                              expiresDesc(Expiry.ofRegex(k.pattern()), "&lw")+"&lw)&fr"), 0);
   
         left.insert(0, Config.namesList.desc+": ["+
-                       (Config.namesList.get().isEmpty() ? "&lb&fbempty&fr" : "total: &lb&fb"+
-                         Config.namesList.get().size)+"&fr, "+
+                       (Config.names().isEmpty() ? "&lb&fbempty&fr" : "total: &lb&fb"+
+                         Config.names().size)+"&fr, "+
                        (Config.namesEnabled.get() ? "&lgenabled&fr" : "&lrdisabled&fr")+"]");
         right.insert(0, "  "+Config.regexList.desc+": ["+
                        (Config.regexList.get().isEmpty() ? "&lb&fbempty" : "total: &lb&fb"+
@@ -118,10 +134,29 @@ public class BlacklistCommand {
         logger.info("Usage:  blacklist\n"
                   + "   or:  blacklist help\n"
                   + "   or:  blacklist reload\n"
-                  + "   or:  blacklist <names|regex> <add|del> <value...>\n"
-                  + "   or:  blacklist <names|regex|ignore-admin|case-sensitive> <on|off>\n"
+                  + "   or:  blacklist auto-reload <on|off>\n"
+                  + "   or:  blacklist <names|regex> add <value...> [--for <duration>]\n"
+                  + "   or:  blacklist <names|regex> del <value...>\n"
+                  + "   or:  blacklist test-entry <names|regex> <value...>\n"
+                  + "   or:  blacklist sweep [start|stop]\n"
+                  + "   or:  blacklist recent [filter...]\n"
+                  + "   or:  blacklist stress <count> [bot-percent] [threads]\n"
+                  + "   or:  blacklist stress stop\n"
+                  + "   or:  blacklist metrics <on|off>\n"
+                  + "   or:  blacklist audit <on|off>\n"
+                  + "   or:  blacklist exempt [add|del <uuid>]\n"
+                  + "   or:  blacklist group [name]\n"
+                  + "   or:  blacklist group <name> <create|delete|on|off>\n"
+                  + "   or:  blacklist group <name> mode <ban-ip|ban-uuid|kick|default>\n"
+                  + "   or:  blacklist group <name> message <text...>\n"
+                  + "   or:  blacklist group <name> <names|regex> <add|del> <value...>\n"
+                  + "   or:  blacklist group <name> file <path>\n"
+                  + "   or:  blacklist <names|regex|ignore-admin|case-sensitive|compact-names> <on|off>\n"
                   + "   or:  blacklist mode <ban-ip|ban-uuid|kick>\n"
-                  + "   or:  blacklist message <text...>\n\n"
+                  + "   or:  blacklist message <text...>\n"
+                  + "   or:  blacklist throttle <on|off|by-ip|by-subnet>\n"
+                  + "   or:  blacklist throttle <burst> <per-minute>\n"
+                  + "   or:  blacklist replication [off|primary|replica|sync]\n\n"
                   + "Description:\n"
                   + "  Allows to filter player nicknames, which contain specific text or matches a regex.\n\n"
                   + "  To create good regex, I recommend these websites:\n"
@@ -129,23 +164,45 @@ public class BlacklistCommand {
                   + "    - https://regex-generator.olafneumann.org/\n\n"
                   + "Notes:\n"
                   + "  - Colors and glyphs are removed before nickname verification.\n"
-                  + "  - The \"\" (double quotes) value can be used to specify an empty value.\n");
+                  + "  - The \"\" (double quotes) value can be used to specify an empty value.\n"
+                  + "  - Durations are like '30m', '2h' or '1d12h'. Temporary entries are removed when expired.\n"
+                  + "  - The throttle rejects clients connecting too often, before any other verification.\n"
+                  + "  - 'test-entry' checks an entry against all known players, without adding it.\n"
+                  + "  - 'sweep' applies the working mode to all known players, and resumes after a restart.\n"
+                  + "  - Exempted UUIDs are never checked, nor throttled.\n"
+                  + "  - Groups have their own lists, working mode and message, and are checked after the main lists.\n"
+                  + "    The \"\" value, as group message, uses the global one.\n"
+                  + "    With 'file', entries are read from a text file, a nickname or a /regex/ per line, instead of the\n"
+                  + "    config. The path is relative to the config directory, and the file is read again on 'reload'.\n"
+                  + "    The \"\" value, as group file, keeps entries in the config again.\n"
+                  + "  - 'compact-names' checks nicknames without a copy per entry, for very large lists.\n"
+                  + "  - 'recent' shows the last checked connections, filtered by address, UUID, name, entry or verdict.\n"
+                  + "  - 'stress' drives synthetic connections through the verification, without banning nor counting.\n");
         return;
 
       case "reload":
-        Config.load();
-        logger.info("Configuration reloaded.");
+        int changes = Config.reload();
+        Replication.reloadIfChanged();
+        if (Config.autoReload.get()) ConfigWatcher.start(Config.settings.getFile());
+        else ConfigWatcher.stop();
+        logger.info("Configuration reloaded, with @ list change(s).", changes);
+        if (changes > 0) Manager.checkOnlinePlayers();
         return;
         
       case "names":
         if (args.length < 2) break;
         else if (args[1].startsWith("add")) {
           String arg = args[1].substring(3).trim();
+          long duration = parseFor(arg, logger);
+          if (duration == -1) return;
+          else if (duration > 0) arg = arg.substring(0, arg.lastIndexOf("--for")).trim();
           if (arg.isEmpty()) break;
           
-          if (!Config.namesList.get().containsKey(arg)) {
-            Config.namesList.getForChange().put(arg, 0);
-            logger.info("Nickname added to the list.");
+          if (Manager.addName(arg)) {
+            if (duration > 0) {
+              Expiry.expireName(arg, System.currentTimeMillis() + duration);
+              logger.info("Nickname added to the list, for @.", Strings.formatDuration(duration));
+            } else logger.info("Nickname added to the list.");
             Manager.checkOnlinePlayers();
 
           } else logger.err("Nickname already in the list.");
@@ -154,8 +211,7 @@ public class BlacklistCommand {
           String arg = args[1].substring(3).trim();
           if (arg.isEmpty()) break;
           
-          if (Config.namesList.get().containsKey(arg)) {
-            Config.namesList.getForChange().remove(arg);
+          if (Manager.removeName(arg)) {
             logger.info("Nickname removed from the list");
 
           } else logger.err("Nickname not in the list");
@@ -175,24 +231,36 @@ public class BlacklistCommand {
         if (args.length < 2) break;
         else if (args[1].startsWith("add")) {
           String arg = args[1].substring(3).trim();
+          long duration = parseFor(arg, logger);
+          if (duration == -1) return;
+          else if (duration > 0) arg = arg.substring(0, arg.lastIndexOf("--for")).trim();
           if (arg.isEmpty()) break;
 
-          if (Structs_find(Config.regexList.get().keys(), p -> p.pattern().equals(arg)) == null) {
+          if (Manager.findRegex(arg) == null) {
             Pattern pattern = null;
             // Check if regex is valid
-            try {
-              pattern = Pattern.compile(arg);
-              if (pattern.matcher("test string") == null) pattern = null;
-            } catch (java.util.regex.PatternSyntaxException e) {}
+            try { pattern = Pattern.compile(arg); } 
+            catch (java.util.regex.PatternSyntaxException e) {}
             
             if (pattern == null) {
               logger.err("Bad formatted regex '@'.", arg);
               return;
             }
-
-            Config.regexList.getForChange().put(pattern, 0);
-            logger.info("Regex added to the list.");
-            Manager.checkOnlinePlayers();
+            
+            // Refuse regex with catastrophic backtracking, and warn about risky ones, benchmarked in background
+            String regex = arg;
+            RegexAnalyzer.vet(pattern, logger, result -> {
+              logger.info("Worst measured matching time: @us, with '@'.", result.worstNanos / 1000, result.worstInput);
+              if (!Manager.addRegex(result.pattern)) {
+                logger.err("Regex already in the list.");
+                return;
+              }
+              if (duration > 0) {
+                Expiry.expireRegex(regex, System.currentTimeMillis() + duration);
+                logger.info("Regex added to the list, for @.", Strings.formatDuration(duration));
+              } else logger.info("Regex added to the list.");
+              Manager.checkOnlinePlayers();
+            });
 
           } else logger.err("Regex already in the list.");
           
@@ -200,9 +268,7 @@ public class BlacklistCommand {
           String arg = args[1].substring(3).trim();
           if (arg.isEmpty()) break;
           
-          Pattern pattern = Structs_find(Config.regexList.get().keys(), p -> p.pattern().equals(arg));
-          if (pattern != null) {
-            Config.regexList.getForChange().remove(pattern);
+          if (Manager.removeRegex(arg)) {
             logger.info("Regex removed from the list");
 
           } else logger.err("Regex not in the list");
@@ -218,6 +284,160 @@ public class BlacklistCommand {
         } else logger.err("Invalid argument. Must be 'add', 'del', 'on' or 'off'.");
         return;
         
+      case "test-entry":
+        if (args.length < 2) break;
+        else {
+          String[] values = args[1].split(" ", 2);
+          if (values.length < 2 || values[1].trim().isEmpty()) break;
+          String value = values[1].trim();
+          Pattern pattern = null;
+          
+          if (values[0].equals("regex")) {
+            try { pattern = Pattern.compile(value); }
+            catch (java.util.regex.PatternSyntaxException e) {
+              logger.err("Bad formatted regex '@'.", value);
+              return;
+            }
+          } else if (!values[0].equals("names")) {
+            logger.err("Invalid argument. Must be 'names' or 'regex'.");
+            return;
+          }
+          
+          if (EntryTest.start(pattern == null ? value : null, pattern, logger)) 
+            logger.info("Testing the entry against known players...");
+          else logger.err("Unable to access the player database.");
+        }
+        return;
+        
+      case "sweep":
+        if (args.length < 2) {
+          int[] progress = Sweep.progress();
+          if (progress == null) logger.info("No sweep in progress.");
+          else logger.info("Sweep in progress: @/@ player(s) checked, @ blacklisted.", 
+                           progress[0], progress[1], progress[2]);
+          
+        } else if (args[1].equals("start")) {
+          if (Sweep.running()) logger.err("A sweep is already in progress.");
+          else {
+            Sweep.start();
+            logger.info("Sweep of the player database started, with working mode: @.", Config.mode.get().desc);
+          }
+          
+        } else if (args[1].equals("stop")) {
+          if (!Sweep.running() && !Config.sweepActive.get()) logger.err("No sweep in progress.");
+          else {
+            Sweep.cancel();
+            logger.info("Sweep cancelled.");
+          }
+          
+        } else logger.err("Invalid argument. Must be 'start' or 'stop'.");
+        return;
+        
+      case "recent":
+        Seq<String> records = ConnectLog.query(args.length < 2 ? null : args[1].trim(), 
+                                               logger instanceof com.xpdustry.simple_blacklist.util.PlayerLogger ? 
+                                               10 : 30);
+        if (records.isEmpty()) logger.info("No connection recorded" + (args.length < 2 ? "." : " for this filter."));
+        else {
+          logger.info("Last @ connection(s):", records.size);
+          records.each(r -> logger.info("&lk|&fr " + r));
+        }
+        return;
+        
+      case "stress":
+        if (args.length < 2) break;
+        else if (args[1].equals("stop")) {
+          if (!StressTest.running()) logger.err("No stress test in progress.");
+          else {
+            StressTest.cancel();
+            logger.info("Stress test stopped.");
+          }
+          
+        } else {
+          String[] values = args[1].split(" +");
+          if (values.length > 3 || !Strings.canParsePositiveInt(values[0]) || 
+              (values.length > 1 && !Strings.canParseInt(values[1])) || 
+              (values.length > 2 && !Strings.canParsePositiveInt(values[2]))) {
+            logger.err("Invalid arguments. Must be 'stop' or positive numbers.");
+            return;
+          }
+          
+          int count = Strings.parseInt(values[0]), 
+              percent = values.length > 1 ? Strings.parseInt(values[1]) : 50,
+              threads = values.length > 2 ? Strings.parseInt(values[2]) : 2;
+          if (percent < 0 || percent > 100) {
+            logger.err("The bot percentage must be between 0 and 100.");
+            return;
+          } else if (threads < 1 || threads > Runtime.getRuntime().availableProcessors()) {
+            logger.err("The number of threads must be between 1 and @.", Runtime.getRuntime().availableProcessors());
+            return;
+          }
+          
+          if (StressTest.start(count, percent / 100f, threads, logger)) 
+            logger.info("Stress test started, with @ connection(s), @% of bots and @ thread(s).", count, percent, threads);
+          else logger.err("A stress test is already in progress.");
+        }
+        return;
+        
+      case "group":
+        group(args.length < 2 ? new String[0] : args[1].split(" ", 3), logger);
+        return;
+        
+      case "exempt":
+        if (args.length < 2) {
+          Seq<String> uuids = Config.exemptUUIDs.get();
+          if (uuids.isEmpty()) logger.info("No exempted UUIDs.");
+          else logger.info("Exempted UUIDs: @", uuids.toString(", "));
+          
+        } else if (args[1].startsWith("add") || args[1].startsWith("del")) {
+          String arg = args[1].substring(3).trim();
+          if (arg.isEmpty()) break;
+          else if (!Addresses.isUUID(arg)) {
+            logger.err("Invalid UUID '@'.", arg);
+            return;
+          }
+          
+          if (args[1].startsWith("add")) {
+            if (Manager.addExempted(arg)) logger.info("UUID exempted from the blacklist.");
+            else logger.err("UUID already exempted.");
+          } else if (Manager.removeExempted(arg)) logger.info("UUID no longer exempted.");
+          else logger.err("UUID not exempted.");
+          
+        } else logger.err("Invalid argument. Must be 'add' or 'del'.");
+        return;
+        
+      case "audit":
+        if (args.length < 2) break;
+        else if (Strings.isTrue(args[1])) {
+          Config.auditEnabled.set(true);
+          AuditLog.start(Config.settings.getFile().parent());
+          logger.info("Kicks and bans will be written in the audit log.");
+          
+        } else if (Strings.isFalse(args[1])) {
+          Config.auditEnabled.set(false);
+          AuditLog.stop();
+          logger.info("Audit log disabled.");
+          
+        } else logger.err("Invalid argument. Must be 'on' or 'off'.");
+        return;
+        
+      case "metrics":
+        if (args.length < 2) break;
+        else if (Strings.isTrue(args[1])) {
+          Config.metricsEnabled.set(true);
+          MetricsServer.start(Config.metricsAddress.get(), Config.metricsPort.get());
+          if (MetricsServer.running()) 
+            logger.info("Metrics served at http://@:@/metrics", Config.metricsAddress.get(), Config.metricsPort.get());
+          else logger.err("Unable to start the metrics server. See the console for details.");
+          
+        } else if (Strings.isFalse(args[1])) {
+          Config.metricsEnabled.set(false);
+          MetricsServer.stop();
+          logger.info("Metrics server stopped.");
+          
+        } else logger.err("Invalid argument. Must be 'on' or 'off'.");
+        return;
+        
       case "ignore-admin":
         if (args.length < 2) break;
         else if (Strings.isTrue(args[1])) {
@@ -231,6 +451,21 @@ public class BlacklistCommand {
         } else logger.err("Invalid argument. Must be 'on' or 'off'.");
         return;
         
+      case "auto-reload":
+        if (args.length < 2) break;
+        else if (Strings.isTrue(args[1])) {
+          Config.autoReload.set(true);
+          ConfigWatcher.start(Config.settings.getFile());
+          logger.info("The config file will be reloaded when modified.");
+          
+        } else if (Strings.isFalse(args[1])) {
+          Config.autoReload.set(false);
+          ConfigWatcher.stop();
+          logger.info("The config file will no longer be reloaded automatically.");
+          
+        } else logger.err("Invalid argument. Must be 'on' or 'off'.");
+        return;
+        
       case "case-sensitive":
         if (args.length < 2) break;
         else if (Strings.isTrue(args[1])) {
@@ -244,6 +479,20 @@ public class BlacklistCommand {
         } else logger.err("Invalid argument. Must be 'on' or 'off'.");
         return;
         
+      case "compact-names":
+        if (args.length < 2) break;
+        else if (Strings.isTrue(args[1]) || Strings.isFalse(args[1])) {
+          Config.compactNames.set(Strings.isTrue(args[1]));
+          Config.copyNames();
+          Manager.rebuildMatcher();
+          Groups.rebuild();
+          logger.info("Nicknames will now be checked @. &fi(storage: @ KB)", 
+                      Config.compactNames.get() ? "in the compact storage" : "from copies, for speed",
+                      Config.names().memoryUsage() / 1024);
+          
+        } else logger.err("Invalid argument. Must be 'on' or 'off'.");
+        return;
+        
       case "mode":
         if (args.length < 2) break;
         switch (args[1]) {
@@ -267,6 +516,67 @@ public class BlacklistCommand {
             return;
         }
         
+      case "throttle":
+        if (args.length < 2) break;
+        else if (Strings.isTrue(args[1])) {
+          Config.throttleEnabled.set(true);
+          logger.info("Connection throttle enabled.");
+          
+        } else if (Strings.isFalse(args[1])) {
+          Config.throttleEnabled.set(false);
+          logger.info("Connection throttle disabled.");
+          
+        } else if (args[1].equals("by-ip") || args[1].equals("by-subnet")) {
+          Config.throttleSubnet.set(args[1].equals("by-subnet"));
+          Manager.resetThrottle();
+          logger.info("Connections will now be throttled by @.", Config.throttleSubnet.get() ? "subnet" : "IP");
+          
+        } else {
+          String[] values = args[1].split(" +");
+          if (values.length != 2 || !Strings.canParsePositiveInt(values[0]) || 
+              !Strings.canParsePositiveInt(values[1])) {
+            logger.err("Invalid arguments. Must be 'on', 'off', 'by-ip', 'by-subnet' or two positive numbers.");
+            return;
+          }
+          
+          Config.throttleBurst.set(Strings.parseInt(values[0]));
+          Config.throttleRate.set(Strings.parseInt(values[1]));
+          Manager.resetThrottle();
+          logger.info("Connection throttle sets to a burst of @ and @ connections per minute.", 
+                      Config.throttleBurst.get(), Config.throttleRate.get());
+        }
+        return;
+        
+      case "replication":
+        if (args.length < 2) {
+          logger.info("Replication: @, using @ transport, at version @.", Replication.mode().desc, 
+                      Config.replicationTransport.get(), Config.replicationVersion.get());
+          return;
+        }
+        
+        switch (args[1]) {
+          case "off": case "primary": case "replica":
+            Config.replicationMode.set(Replication.Mode.valueOf(args[1]));
+            Replication.init();
+            if (Replication.mode() != Config.replicationMode.get()) 
+              logger.err("Unable to start the replication. See the server console for details.");
+            else logger.info("Replication mode sets to @.", Replication.mode().desc);
+            return;
+            
+          case "sync":
+            if (Replication.mode() != Replication.Mode.replica) {
+              logger.err("Only replicas can be synchronized.");
+              return;
+            }
+            Replication.pull();
+            logger.info("Synchronization requested.");
+            return;
+            
+          default:
+            logger.err("Invalid argument. Must be 'off', 'primary', 'replica' or 'sync'.");
+            return;
+        }
+        
       case "message":
         if (args.length < 2) break;
         else if (args[1].equals("\"\"")) {
@@ -284,12 +594,177 @@ public class BlacklistCommand {
   }
   
 
-  /** Idk why there is only {@link arc.util.Structs#find(Object[], Boolf)}, with object array, and not with iterable. */
-  private static <T> T Structs_find(Iterable<T> array, arc.func.Boolf<T> value){
-    for(T t : array) {
-      if (value.get(t)) return t;
+  private static void group(String[] args, Logger logger) {
+    if (args.length == 0) {
+      Seq<Groups.Group> groups = Groups.all();
+      if (groups.isEmpty()) logger.info("No groups.");
+      else {
+        logger.info("Groups:");
+        groups.each(g -> logger.info("&lk|&fr @: [total: &lb@&fr, @&fr, mode: @, hits: &lb@&fr]", g.name, g.size(), 
+                                     g.enabled() ? "&lgenabled" : "&lrdisabled", 
+                                     g.mode().desc + (g.hasOwnMode() ? "" : " &fi(global)&fr"), g.hits.sum()));
+      }
+      return;
+    }
+    
+    String name = args[0];
+    if (args.length < 2) {
+      Groups.Group group = Groups.get(name);
+      if (group == null) {
+        logger.err("Group '@' not found.", name);
+        return;
+      }
+      logger.info("Group '@': [@&fr]", group.name, group.enabled() ? "&lgenabled" : "&lrdisabled");
+      logger.info("&lk|&fr " + Config.mode.desc + ": @@", group.mode().desc, group.hasOwnMode() ? "" : " &fi(global)");
+      logger.info("&lk|&fr " + Config.message.desc + ": @@", group.message().isEmpty() ? "&fi(default)&fr" : 
+                                                             group.message(), group.hasOwnMessage() ? "" : " &fi(global)");
+      if (group.file() != null) {
+        logger.info("&lk|&fr file: @ &fi(@ nickname(s), @ regex)", group.file(), group.names.size, group.regex.size);
+        return;
+      }
+      for (NameArena.Entry e : group.names) logger.info("&lk|&fr name: @ &fi(uses: &lb@&fr&fi)", e.key, e.value);
+      for (ObjectIntMap.Entry<Pattern> e : group.regex) 
+        logger.info("&lk|&fr regex: @ &fi(uses: &lb@&fr&fi)", e.key.pattern(), e.value);
+      return;
+    }
+    
+    if (args[1].equals("create")) {
+      if (!Groups.isValidName(name)) 
+        logger.err("Invalid group name. Must be 1 to 32 characters among 'a-z', '0-9', '_' and '-'.");
+      else if (Groups.create(name) == null) logger.err("Group '@' already exists.", name);
+      else logger.info("Group '@' created.", name);
+      return;
+    }
+    
+    Groups.Group group = Groups.get(name);
+    if (group == null) {
+      logger.err("Group '@' not found.", name);
+      return;
+    }
+    String arg = args.length < 3 ? "" : args[2].trim();
+    
+    switch (args[1]) {
+      case "delete":
+        Groups.delete(name);
+        logger.info("Group '@' deleted.", name);
+        return;
+        
+      case "on": case "off":
+        Groups.setEnabled(group, args[1].equals("on"));
+        logger.info("Group '@' @.", name, group.enabled() ? "enabled" : "disabled");
+        if (group.enabled()) Manager.checkOnlinePlayers();
+        return;
+        
+      case "mode":
+        switch (arg) {
+          case "ban-ip": Groups.setMode(group, Config.WorkingMode.banip); break;
+          case "ban-uuid": Groups.setMode(group, Config.WorkingMode.banuuid); break;
+          case "kick": Groups.setMode(group, Config.WorkingMode.kick); break;
+          case "default": Groups.setMode(group, null); break;
+          default:
+            logger.err("Invalid argument. Working mode must be 'ban-ip', 'ban-uuid', 'kick' or 'default'.");
+            return;
+        }
+        logger.info("Working mode of group '@' sets to @.", name, group.mode().desc);
+        return;
+        
+      case "message":
+        if (arg.isEmpty()) break;
+        Groups.setMessage(group, arg.equals("\"\"") ? null : arg);
+        logger.info("Kick message of group '@' @.", name, group.hasOwnMessage() ? "modified" : "sets to global");
+        return;
+        
+      case "file":
+        if (arg.isEmpty()) break;
+        try {
+          ListFile.Result result = Groups.setFile(group, arg.equals("\"\"") ? null : arg);
+          if (result == null) logger.info("Entries of group '@' are now kept in the config.", name);
+          else {
+            logger.info("Group '@' now reads its entries from '@', with @ nickname(s) and @ regex.", name, arg, 
+                        result.names, result.regex);
+            if (group.enabled()) Manager.checkOnlinePlayers();
+          }
+        } catch (java.io.IOException e) { logger.err("Unable to read '@': @", arg, e.toString()); }
+        return;
+        
+      case "names": case "regex":
+        boolean names = args[1].equals("names");
+        if (group.file() != null) {
+          logger.err("Entries of group '@' are read from '@'. Edit the file, then use 'blacklist reload'.", 
+                     name, group.file());
+          return;
+        }
+        if (!arg.startsWith("add") && !arg.startsWith("del")) {
+          logger.err("Invalid argument. Must be 'add' or 'del'.");
+          return;
+        }
+        String value = arg.substring(3).trim();
+        if (value.isEmpty()) break;
+        
+        if (arg.startsWith("del")) {
+          if (names ? Groups.removeName(group, value) : Groups.removeRegex(group, value)) 
+            logger.info("@ removed from group '@'.", names ? "Nickname" : "Regex", name);
+          else logger.err("@ not in group '@'.", names ? "Nickname" : "Regex", name);
+          return;
+        }
+        
+        if (names) {
+          if (Groups.addName(group, value)) {
+            logger.info("Nickname added to group '@'.", name);
+            if (group.enabled()) Manager.checkOnlinePlayers();
+          } else logger.err("Nickname already in group '@'.", name);
+          return;
+        }
+        
+        Pattern pattern;
+        try { pattern = Pattern.compile(value); } 
+        catch (java.util.regex.PatternSyntaxException e) {
+          logger.err("Bad formatted regex '@'.", value);
+          return;
+        }
+        // Same checks as the regex list, the group can be changed during the benchmark
+        RegexAnalyzer.vet(pattern, logger, result -> {
+          if (Groups.get(name) != group || group.file() != null) 
+            logger.err("Group '@' was deleted or moved to a list file meanwhile.", name);
+          else if (Groups.addRegex(group, result.pattern)) {
+            logger.info("Regex added to group '@'.", name);
+            if (group.enabled()) Manager.checkOnlinePlayers();
+          } else logger.err("Regex already in group '@'.", name);
+        });
+        return;
+        
+      default:
+        logger.err("Invalid argument. Must be 'create', 'delete', 'on', 'off', 'mode', 'message', 'file', 'names' or "
+                 + "'regex'.");
+        return;
     }
-    return null;
+    
+    logger.err("Missing argument(s). Use 'blacklist help' to see usage.");
+  }
+  
+  /** 
+   * Parses the {@code --for <duration>} option at the end of {@code arg}.
+   * @return the duration in milliseconds, {@code 0} if not specified, or {@code -1} if invalid
+   */
+  private static long parseFor(String arg, Logger logger) {
+    int index = arg.lastIndexOf("--for");
+    if (index == -1 || (index > 0 && arg.charAt(index-1) != ' ')) return 0;
+    
+    long duration = Strings.parseDuration(arg.substring(index+5).trim());
+    if (duration == -1) logger.err("Invalid duration. Must be like '30m', '2h' or '1d12h'.");
+    return duration;
+  }
+  
+  /** @return the remaining time before {@code deadline}, to append in list details, or nothing if permanent */
+  private static String expiresDesc(long deadline, String color) {
+    if (deadline == 0) return "";
+    return color + ", expires in: &lb" + Strings.formatDuration(deadline - System.currentTimeMillis());
+  }
+  
+  private static String throttleDesc() {
+    return (Config.throttleEnabled.get() ? "&lgenabled&fr" : "&lrdisabled&fr") + " &fi(burst: " + 
+           Config.throttleBurst.get() + ", " + Config.throttleRate.get() + "/min, by " + 
+           (Config.throttleSubnet.get() ? "subnet" : "IP") + ")&fr";
   }
   
   /** Optimized {@link Strings#lJust(Seq, int)} that ignore logging colors, automatically calculate max length. */
@@ -28,7 +28,11 @@ package com.xpdustry.simple_blacklist;
 
 import java.util.regex.Pattern;
 
+import com.xpdustry.simple_blacklist.metrics.Metrics;
+import com.xpdustry.simple_blacklist.replication.Replication;
 import com.xpdustry.simple_blacklist.util.JsonSettings;
+import com.xpdustry.simple_blacklist.util.NameArena;
+import com.xpdustry.simple_blacklist.util.RegexAnalyzer;
 import com.xpdustry.simple_blacklist.util.Strings;
 
 import arc.Core;
@@ -43,6 +47,15 @@ import arc.util.serialization.JsonValue;
 public class Config {
   public static final Seq<Field<?>> all = new Seq<>();
   protected static JsonSettings settings;
+  /** Modification time and size of the config file, after the last load or save */
+  private static long savedStamp;
+  /** Entries added or removed since the last load or save, left as is by {@link #reload()} */
+  private static final arc.struct.ObjectSet<String> unsavedNames = new arc.struct.ObjectSet<>(), 
+                                                     unsavedRegex = new arc.struct.ObjectSet<>();
+  /** Whether lists were cleared since the last load or save, entries of the file are then not added back */
+  private static boolean namesCleared, regexCleared, reloading;
+  /** Storage of the nickname list, see {@link #namesList} */
+  private static NameArena names = new NameArena();
   
   public static void init(arc.files.Fi file) {
     settings = new JsonSettings(file);
@@ -52,21 +65,235 @@ public class Config {
       public void write(Json json, Pattern object, Class knownType) { json.writeValue(object.toString()); }
       public Pattern read(Json json, JsonValue jsonData, Class type) { return Pattern.compile(jsonData.asString()); }    
     });
+    // Names are saved directly from the arena, without an intermediate map
+    settings.getJson().setSerializer(NameArena.class, new Json.Serializer<NameArena>() {
+      public void write(Json json, NameArena object, Class knownType) { 
+        json.writeObjectStart();
+        for (NameArena.Entry e : object) json.writeValue(e.key, e.value);
+        json.writeObjectEnd();
+      }
+      public NameArena read(Json json, JsonValue jsonData, Class type) { 
+        NameArena names = new NameArena(jsonData.size);
+        for (JsonValue child = jsonData.child; child != null; child = child.next) names.put(child.name, child.asInt());
+        return names;
+      }    
+    });
 
     // Add an autosave task for every minutes
-    arc.util.Timer.schedule(() -> {if (all.contains(Field::modified)) save();}, 60, 60);
+    arc.util.Timer.schedule(() -> {if (all.contains(Field::modified) || Groups.modified()) save();}, 60, 60);
   }
   
   public static synchronized void load() {
     if (settings == null) throw new IllegalStateException("#init() must be called before.");
     
     settings.load();
-    all.each(f -> f.load());
+    all.each(f -> f != namesList, Field::load);
+    loadNames();
+    Counters.load();
+    Expiry.load();
+    Groups.load();
+    savedStamp = stamp();
+    forgetUnsaved();
+    vet(regexList.get().keys().toArray());
   }
   
   public static synchronized void save() {
+    Counters.save();
+    Expiry.save();
+    Groups.save();
+    // The map of the list is only a copy of the arena
+    if (namesList.modified) {
+      settings.put(namesList.name, names);
+      namesList.modified = false;
+    }
     all.each(f -> f.save());
+    long start = System.nanoTime();
     settings.save();
+    Metrics.saves.record(System.nanoTime() - start);
+    savedStamp = stamp();
+    forgetUnsaved();
+  }
+  
+  /** 
+   * Reloads the config file, but only applies the differences to lists. 
+   * Compiled patterns and counters of entries still in lists are kept. <br>
+   * Other settings are reloaded, except those with unsaved modifications. 
+   * Entries added or removed since the last save are also kept as is.
+   * Must be called on the main thread.
+   * @return the number of added and removed entries
+   */
+  public static synchronized int reload() {
+    if (settings == null) throw new IllegalStateException("#init() must be called before.");
+    
+    settings.load();
+    savedStamp = stamp();
+    boolean compact = compactNames.get();
+    all.each(f -> f != namesList && f != regexList && !f.modified, Field::load);
+    if (compactNames.get() != compact) copyNames();
+    Expiry.load();
+    Groups.load();
+    Manager.rebuildExempted();
+    
+    int changes;
+    reloading = true;
+    try { changes = reloadLists(); } 
+    finally { reloading = false; }
+    
+    Counters.load();
+    return changes;
+  }
+  
+  /** Applies the differences between lists and the loaded file. */
+  private static int reloadLists() {
+    int changes = 0;
+    JsonValue names = settings.getRaw(namesList.name), regex = settings.getRaw(regexList.name);
+    Seq<Pattern> added = new Seq<>();
+    
+    if (names != null && names.isObject()) {
+      NameArena current = Config.names, read = new NameArena(names.size);
+      for (JsonValue child = names.child; child != null; child = child.next) read.put(child.name, child.asInt());
+      
+      for (String name : current.keys()) {
+        if (!read.containsKey(name) && !unsavedNames.contains(name) && Manager.removeName(name)) changes++;
+      }
+      for (NameArena.Entry e : read) {
+        if (namesCleared || unsavedNames.contains(e.key)) continue;
+        if (!current.containsKey(e.key) && Manager.addName(e.key)) {
+          putName(e.key, e.value);
+          changes++;
+        }
+      }
+    }
+    
+    if (regex != null && regex.isObject()) {
+      ObjectIntMap<String> read = new ObjectIntMap<>();
+      for (JsonValue child = regex.child; child != null; child = child.next) read.put(child.name, child.asInt());
+      
+      for (Pattern pattern : regexList.get().keys().toArray()) {
+        if (!read.containsKey(pattern.pattern()) && !unsavedRegex.contains(pattern.pattern()) && 
+            Manager.removeRegex(pattern.pattern())) 
+          changes++;
+      }
+      for (ObjectIntMap.Entry<String> e : read) {
+        if (regexCleared || unsavedRegex.contains(e.key) || Manager.findRegex(e.key) != null) continue;
+        
+        Pattern pattern;
+        try { pattern = Pattern.compile(e.key); } 
+        catch (java.util.regex.PatternSyntaxException err) { continue; }
+        
+        if (Manager.addRegex(pattern)) {
+          regexList.get().put(pattern, e.value);
+          added.add(pattern);
+          changes++;
+        }
+      }
+    }
+    
+    vet(added);
+    return changes;
+  }
+  
+  /** Checks regex of the file in background, only logging issues */
+  private static void vet(Seq<Pattern> patterns) {
+    RegexAnalyzer.vetAll(patterns, "the config");
+  }
+  
+  /** @return the storage of the nickname list. Must only be modified through the methods of {@link Config}. */
+  public static NameArena names() {
+    return names;
+  }
+  
+  /** Sets the {@code uses} of the nickname entry, adding it if needed, in the arena and in {@link #namesList}. */
+  public static void putName(String name, int uses) {
+    names.put(name, uses);
+    ObjectIntMap<String> copy = namesCopy();
+    if (copy != null) copy.put(name, uses);
+  }
+  
+  /** @return the {@code uses} of the nickname entry before the increment, {@code 0} if added */
+  public static int incrementName(String name) {
+    ObjectIntMap<String> copy = namesCopy();
+    if (copy != null) copy.increment(name);
+    return names.increment(name);
+  }
+  
+  /** @return {@code false} if the {@code name} was not in the list */
+  public static boolean removeName(String name) {
+    ObjectIntMap<String> copy = namesCopy();
+    if (copy != null) copy.remove(name);
+    return names.remove(name);
+  }
+  
+  public static void clearNames() {
+    ObjectIntMap<String> copy = namesCopy();
+    if (copy != null) copy.clear();
+    names.clear();
+  }
+  
+  /** Marks the list as modified. @return the copy of the list to update, or {@code null} in compact mode */
+  private static ObjectIntMap<String> namesCopy() {
+    namesList.modified = true;
+    return compactNames.get() ? null : namesList.get();
+  }
+  
+  /** Reads nicknames of the file directly into the arena, then copies them in {@link #namesList}, if needed. */
+  private static void loadNames() {
+    JsonValue json = settings.getRaw(namesList.name);
+    NameArena read = new NameArena(json == null ? 16 : json.size);
+    if (json != null && json.isObject()) {
+      for (JsonValue child = json.child; child != null; child = child.next) read.put(child.name, child.asInt());
+    }
+    names = read;
+    namesList.modified = false;
+    copyNames();
+  }
+  
+  /** 
+   * Copies the arena in {@link #namesList}, or empties it in compact mode, to not keep a {@link String} per entry. 
+   * Must be called when {@link #compactNames} is changed.
+   */
+  public static void copyNames() {
+    ObjectIntMap<String> copy;
+    if (compactNames.get()) copy = new ObjectIntMap<>();
+    else {
+      copy = new ObjectIntMap<>(Math.max(16, names.size));
+      for (NameArena.Entry e : names) copy.put(e.key, e.value);
+    }
+    namesList.value = copy;
+    namesList.loaded = true;
+  }
+  
+  /** Marks a nickname entry as added or removed, so {@link #reload()} will not revert it before the next save. */
+  public static synchronized void unsavedName(String name) {
+    if (!reloading) unsavedNames.add(name);
+  }
+  
+  /** Marks a regex entry as added or removed, so {@link #reload()} will not revert it before the next save. */
+  public static synchronized void unsavedRegex(String pattern) {
+    if (!reloading) unsavedRegex.add(pattern);
+  }
+  
+  /** Marks a list as cleared, so {@link #reload()} will not add entries of the file back before the next save. */
+  public static synchronized void unsavedClear(boolean names) {
+    if (reloading) return;
+    if (names) namesCleared = true;
+    else regexCleared = true;
+  }
+  
+  private static void forgetUnsaved() {
+    unsavedNames.clear();
+    unsavedRegex.clear();
+    namesCleared = regexCleared = false;
+  }
+  
+  /** @return whether the config file was modified since the last load or save */
+  public static boolean modifiedExternally() {
+    return settings != null && stamp() != savedStamp;
+  }
+  
+  private static long stamp() {
+    java.io.File file = settings.getFile().file();
+    return file.lastModified() * 31 + file.length();
   }
   
   public static boolean needSettingsMigration() {
@@ -78,9 +305,11 @@ public class Config {
     ObjectMap<String, Integer> map;
     if (Core.settings.has("simple-blacklist")) {
       map = Core.settings.getJson("simple-blacklist", ObjectMap.class, ObjectMap::new);
-      ObjectIntMap<String> converted = new ObjectIntMap();
+      NameArena converted = new NameArena(map.size);
       map.each((k, v) -> converted.put(k, v));
-      namesList.set(converted);
+      names = converted;
+      namesList.modified = true;
+      copyNames();
     }
     if (Core.settings.has("simple-blacklist-regexlist")) {
       map = Core.settings.getJson("simple-blacklist-regexlist", ObjectMap.class, ObjectMap::new);
@@ -192,6 +421,11 @@ public class Config {
     namesEnabled = new Field<>("names-enabled", "", true),
     regexEnabled = new Field<>("regex-enabled", "", true);
   
+  /** 
+   * Since 1.7, entries are stored in the {@link NameArena} of {@link #names()}, and this map is only a copy, 
+   * kept up to date for plugins reading it. It is empty when {@link #compactNames} is enabled. 
+   * Must not be modified, use {@link Manager#addName(String)} and {@link Manager#removeName(String)}.
+   */
   public static final Field<ObjectIntMap<String>> 
     namesList = new Field("names", "Nickname list", String.class, new ObjectIntMap<>());
   public static final Field<ObjectIntMap<Pattern>> 
@@ -203,5 +437,57 @@ public class Config {
     mode = new Field<>("mode", "Working mode", WorkingMode.kick);
   public static final Field<Boolean>
     ignoreAdmins = new Field<>("ignore-admins", "Ignore admin players", false),
-    nameCaseSensitive = new Field<>("case-sensitive", "Nickname list case sensitive", false);
+    nameCaseSensitive = new Field<>("case-sensitive", "Nickname list case sensitive", false),
+    compactNames = new Field<>("compact-names", "Check nicknames in the compact storage &fi(less memory, slower)&fr", 
+                               false);
+  public static final Field<Integer>
+    warmupConnections = new Field<>("warmup-connections", 
+                                    "Synthetic connections checked at startup, to warm up the verification", 20000);
+  
+  public static final Field<Boolean>
+    throttleEnabled = new Field<>("throttle", "Connection throttle", false),
+    throttleSubnet = new Field<>("throttle-subnet", "Throttle by subnet &fi(/24 or /64)&fr", false);
+  public static final Field<Integer>
+    throttleBurst = new Field<>("throttle-burst", "Throttle burst", 5),
+    throttleRate = new Field<>("throttle-rate", "Throttle rate &fi(per minute)&fr", 20);
+  
+  public static final Field<Boolean>
+    autoReload = new Field<>("auto-reload", "Reload the config file when modified", false);
+  
+  public static final Field<Replication.Mode>
+    replicationMode = new Field<>("replication-mode", "Replication", Replication.Mode.off);
+  public static final Field<Replication.TransportType>
+    replicationTransport = new Field<>("replication-transport", "Replication transport", 
+                                       Replication.TransportType.directory);
+  public static final Field<String>
+    replicationPath = new Field<>("replication-path", "Replication shared directory", ""),
+    replicationAddress = new Field<>("replication-address", "Replication TCP address", "127.0.0.1");
+  public static final Field<Integer>
+    replicationPort = new Field<>("replication-port", "Replication TCP port", 6590),
+    replicationInterval = new Field<>("replication-interval", "Replication pull interval &fi(seconds)&fr", 5);
+  public static final Field<Long>
+    replicationVersion = new Field<>("replication-version", "Replication version", 0L);
+  
+  public static final Field<Boolean>
+    sweepActive = new Field<>("sweep-active", "Sweep of the player database in progress", false);
+  public static final Field<String>
+    sweepCursor = new Field<>("sweep-cursor", "Last player ID checked by the sweep", "");
+  
+  public static final Field<Boolean>
+    metricsEnabled = new Field<>("metrics", "Prometheus metrics endpoint", false);
+  public static final Field<String>
+    metricsAddress = new Field<>("metrics-address", "Metrics HTTP address", "127.0.0.1");
+  public static final Field<Integer>
+    metricsPort = new Field<>("metrics-port", "Metrics HTTP port", 9590);
+  
+  public static final Field<Boolean>
+    auditEnabled = new Field<>("audit", "Audit log of kicks and bans", true),
+    auditGzip = new Field<>("audit-gzip", "Compress rotated audit logs", true);
+  public static final Field<Integer>
+    auditMaxSize = new Field<>("audit-max-size", "Audit log rotation size &fi(MB)&fr", 10),
+    auditMaxAge = new Field<>("audit-max-age", "Audit log rotation age &fi(hours)&fr", 24),
+    auditMaxFiles = new Field<>("audit-max-files", "Rotated audit logs to keep", 10);
+  
+  public static final Field<Seq<String>>
+    exemptUUIDs = new Field("exempt", "Exempted UUIDs", String.class, new Seq<>());
 }
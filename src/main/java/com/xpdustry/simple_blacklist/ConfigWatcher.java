@@ -0,0 +1,117 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import com.xpdustry.simple_blacklist.replication.Replication;
+import com.xpdustry.simple_blacklist.util.Logger;
+
+
+/** Watches the config file, and reloads it when modified by something else than the plugin. */
+public class ConfigWatcher {
+  /** Time to wait, in milliseconds, for the file writing to finish */
+  public static final long debounce = 500;
+  
+  private static final Logger logger = new Logger();
+  private static WatchService service;
+  private static Thread thread;
+  
+  public static synchronized void start(arc.files.Fi file) {
+    stop();
+    
+    Path path = file.file().toPath().toAbsolutePath(), dir = path.getParent();
+    try {
+      service = FileSystems.getDefault().newWatchService();
+      dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+    } catch (IOException e) {
+      logger.err("Unable to watch the config file, automatic reload disabled", e);
+      stop();
+      return;
+    }
+    
+    WatchService watcher = service;
+    thread = new Thread(() -> watch(watcher, path.getFileName()), "SimpleBlacklist-ConfigWatcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+  
+  public static synchronized void stop() {
+    if (service != null) {
+      try { service.close(); } 
+      catch (IOException ignored) {}
+    }
+    service = null;
+    thread = null;
+  }
+  
+  private static void watch(WatchService watcher, Path fileName) {
+    try {
+      while (true) {
+        WatchKey key = watcher.take();
+        boolean changed = false;
+        
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (fileName.equals(event.context())) changed = true;
+        }
+        key.reset();
+        if (!changed) continue;
+
+        // Wait for the end of writing, and ignore the following events
+        Thread.sleep(debounce);
+        WatchKey next;
+        while ((next = watcher.poll()) != null) {
+          next.pollEvents();
+          next.reset();
+        }
+        
+        arc.Core.app.post(ConfigWatcher::reload);
+      }
+    } catch (InterruptedException | ClosedWatchServiceException ignored) {}
+  }
+  
+  private static void reload() {
+    // Ignore modifications made by the plugin itself
+    if (!Config.modifiedExternally()) return;
+    
+    try {
+      int changes = Config.reload();
+      Replication.reloadIfChanged();
+      logger.info("Config file modified, reloaded with @ list change(s).", changes);
+      if (changes > 0) Manager.checkOnlinePlayers();
+    } catch (RuntimeException e) {
+      logger.err("Unable to reload the modified config file", e);
+    }
+  }
+}
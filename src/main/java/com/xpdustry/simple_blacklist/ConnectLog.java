@@ -0,0 +1,132 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import com.xpdustry.simple_blacklist.util.StringTable;
+
+import arc.struct.Seq;
+
+
+/** 
+ * Ring log of the last connection attempts checked by the listener. <br>
+ * Records are stored in preallocated arrays, and strings in an interned table, 
+ * so the memory stays the same regardless of the traffic.
+ */
+public class ConnectLog {
+  /** Number of kept records */
+  public static final int capacity = 1024;
+  
+  /** Strings per record: address, UUID, name and matched entry */
+  private static final StringTable strings = new StringTable(capacity * 4);
+  private static final long[] times = new long[capacity];
+  private static final int[] addresses = new int[capacity], uuids = new int[capacity], names = new int[capacity],
+                             entries = new int[capacity], latencies = new int[capacity];
+  private static final byte[] verdicts = new byte[capacity];
+  private static int head, size;
+  
+  /** 
+   * Records a connection attempt. 
+   * @param name the normalised name, or the raw one if the client was rejected before the check
+   * @param entry the matched entry, or {@code null}
+   * @param latency time spent in the listener, in nanoseconds
+   */
+  public static synchronized void add(long time, String address, String uuid, String name, Verdict verdict, 
+                                      String entry, long latency) {
+    if (size == capacity) {
+      strings.release(addresses[head]);
+      strings.release(uuids[head]);
+      strings.release(names[head]);
+      strings.release(entries[head]);
+    } else size++;
+    
+    times[head] = time;
+    addresses[head] = strings.intern(address);
+    uuids[head] = strings.intern(uuid);
+    names[head] = strings.intern(name);
+    entries[head] = strings.intern(entry);
+    verdicts[head] = (byte)verdict.ordinal();
+    latencies[head] = (int)Math.min(latency, Integer.MAX_VALUE);
+    head = (head + 1) % capacity;
+  }
+  
+  /** 
+   * @param filter text to search in the address, UUID, name, entry or verdict, or {@code null} for all records
+   * @return formatted records, the most recent first
+   */
+  public static synchronized Seq<String> query(String filter, int limit) {
+    Seq<String> result = new Seq<>();
+    for (int n=0, i=(head-1+capacity)%capacity; n<size && result.size<limit; n++, i=(i-1+capacity)%capacity) {
+      String address = strings.get(addresses[i]), uuid = strings.get(uuids[i]), name = strings.get(names[i]),
+             entry = strings.get(entries[i]);
+      Verdict verdict = Verdict.all[verdicts[i]];
+      
+      if (filter != null && !contains(address, filter) && !contains(uuid, filter) && !contains(name, filter) &&
+          !contains(entry, filter) && !verdict.name().equals(filter)) 
+        continue;
+      
+      StringBuilder builder = new StringBuilder(String.format("%tT ", times[i]));
+      builder.append(verdict.color).append(verdict.name()).append("&fr ")
+             .append(name == null ? "&fi(none)&fr" : escape(name))
+             .append(" &fi[").append(address).append("] [").append(uuid).append("]&fr");
+      if (entry != null) builder.append(" &fi(").append(escape(entry)).append(")&fr");
+      builder.append(" &lk").append(latencies[i] / 1000).append("us&fr");
+      result.add(builder.toString());
+    }
+    return result;
+  }
+  
+  /** @return the {@code text} with its color codes and color tags escaped */
+  private static String escape(String text) {
+    return text.replace("&", "&&").replace("[", "[[");
+  }
+  
+  public static synchronized void clear() {
+    while (size > 0) {
+      head = (head - 1 + capacity) % capacity;
+      strings.release(addresses[head]);
+      strings.release(uuids[head]);
+      strings.release(names[head]);
+      strings.release(entries[head]);
+      size--;
+    }
+    head = 0;
+  }
+  
+  private static boolean contains(String value, String filter) {
+    return value != null && value.contains(filter);
+  }
+  
+  
+  public static enum Verdict {
+    valid("&lg"), blacklisted("&lr"), ignored("&lb"), throttled("&ly"), banned("&lr"), invalid("&ly"), exempted("&lb");
+    
+    static final Verdict[] all = values();
+    final String color;
+    
+    Verdict(String color) { this.color = color; }
+  }
+}
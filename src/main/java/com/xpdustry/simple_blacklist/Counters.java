@@ -0,0 +1,183 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.util.GCounter;
+import com.xpdustry.simple_blacklist.util.NameArena;
+
+import arc.struct.ObjectIntMap;
+import arc.struct.ObjectMap;
+import arc.util.serialization.JsonValue;
+
+
+/** 
+ * Hit counters of list entries, per node, for servers sharing the same config file. <br>
+ * Before each save, counters written by other nodes are merged with the local ones. 
+ * The {@code uses} of list entries are then set to the cluster total.
+ */
+public class Counters {
+  public static final String key = "counters";
+  /** 
+   * Settings key of the node id, in the settings of the server. 
+   * Not in the config file, which can be shared between servers, each needs its own id.
+   */
+  public static final String nodeKey = "simple-blacklist-node-id";
+  
+  private static final ObjectMap<String, GCounter> names = new ObjectMap<>(), regex = new ObjectMap<>();
+  private static boolean dirty;
+  private static String node;
+  
+  /** @return the id of this server, generated on first use */
+  public static synchronized String node() {
+    if (node == null) {
+      node = arc.Core.settings.getString(nodeKey, "");
+      if (node.isEmpty()) {
+        node = java.util.UUID.randomUUID().toString().substring(0, 8);
+        arc.Core.settings.put(nodeKey, node);
+        arc.Core.settings.forceSave();
+      }
+    }
+    return node;
+  }
+  
+  public static synchronized void hitName(String name) {
+    names.get(name, GCounter::new).increment(node());
+    dirty = true;
+  }
+  
+  public static synchronized void hitRegex(Pattern pattern) {
+    regex.get(pattern.pattern(), GCounter::new).increment(node());
+    dirty = true;
+  }
+  
+  public static synchronized int localName(String name) {
+    GCounter c = names.get(name);
+    return c == null ? 0 : c.get(node());
+  }
+  
+  public static synchronized int localRegex(Pattern pattern) {
+    GCounter c = regex.get(pattern.pattern());
+    return c == null ? 0 : c.get(node());
+  }
+  
+  /** 
+   * Loads counters from the config. <br>
+   * Uses not counted by any node, from before counters, are attributed to the local node. 
+   * Counters are only created for entries with uses.
+   */
+  public static synchronized void load() {
+    merge(Config.settings.getRaw(key));
+    for (NameArena.Entry e : Config.names()) {
+      GCounter c = names.get(e.key);
+      int missing = e.value - (c == null ? 0 : c.total());
+      if (missing > 0) names.get(e.key, GCounter::new).increment(node(), missing);
+    }
+    for (ObjectIntMap.Entry<Pattern> e : Config.regexList.get()) {
+      GCounter c = regex.get(e.key.pattern());
+      int missing = e.value - (c == null ? 0 : c.total());
+      if (missing > 0) regex.get(e.key.pattern(), GCounter::new).increment(node(), missing);
+    }
+  }
+  
+  /** 
+   * Merges counters saved by other nodes in the config file, if modified since the last load or save, 
+   * updates the {@code uses} of list entries, and puts counters in the settings. <br>
+   * Must be called before saving the settings.
+   */
+  public static synchronized void save() {
+    arc.files.Fi file = Config.settings.getFile();
+    if (Config.modifiedExternally() && file.exists()) {
+      try { 
+        JsonValue content = new arc.util.serialization.JsonReader().parse(file.readString());
+        if (content != null) merge(content.get(key));
+      } catch (RuntimeException ignored) {} // Malformed file, the next load will complain about it
+    }
+    if (!dirty) return;
+    
+    // Forget removed entries, and update totals
+    NameArena namesList = Config.names();
+    for (String name : names.keys().toSeq()) {
+      if (!namesList.containsKey(name)) names.remove(name);
+      else {
+        int total = names.get(name).total();
+        if (total != namesList.get(name, 0)) Config.putName(name, total);
+      }
+    }
+    
+    ObjectIntMap<Pattern> regexList = Config.regexList.get();
+    ObjectMap<String, Pattern> patterns = new ObjectMap<>();
+    for (Pattern pattern : regexList.keys()) patterns.put(pattern.pattern(), pattern);
+    for (String pattern : regex.keys().toSeq()) {
+      if (!patterns.containsKey(pattern)) regex.remove(pattern);
+    }
+    for (Pattern pattern : regexList.keys().toArray()) {
+      GCounter c = regex.get(pattern.pattern());
+      if (c != null && c.total() != regexList.get(pattern, 0)) Config.regexList.getForChange().put(pattern, c.total());
+    }
+    
+    JsonValue json = new JsonValue(JsonValue.ValueType.object);
+    json.addChild("names", toJson(names));
+    json.addChild("regex", toJson(regex));
+    Config.settings.put(key, json);
+    dirty = false;
+  }
+  
+  private static void merge(JsonValue json) {
+    if (json == null || !json.isObject()) return;
+    merge(json.get("names"), names);
+    merge(json.get("regex"), regex);
+  }
+  
+  private static void merge(JsonValue json, ObjectMap<String, GCounter> counters) {
+    if (json == null || !json.isObject()) return;
+    
+    for (JsonValue entry = json.child; entry != null; entry = entry.next) {
+      if (!entry.isObject()) continue;
+      GCounter counter = counters.get(entry.name, GCounter::new);
+      for (JsonValue node = entry.child; node != null; node = node.next) {
+        if (!node.isNumber()) continue;
+        int before = counter.get(node.name);
+        counter.merge(node.name, node.asInt());
+        if (counter.get(node.name) != before) dirty = true;
+      }
+    }
+  }
+  
+  private static JsonValue toJson(ObjectMap<String, GCounter> counters) {
+    JsonValue json = new JsonValue(JsonValue.ValueType.object);
+    for (ObjectMap.Entry<String, GCounter> e : counters) {
+      JsonValue entry = new JsonValue(JsonValue.ValueType.object);
+      // Entries never hit are implicit
+      if (e.value.total() == 0) continue;
+      for (ObjectIntMap.Entry<String> n : e.value.counts) entry.addChild(n.key, new JsonValue(n.value));
+      json.addChild(e.key, entry);
+    }
+    return json;
+  }
+}
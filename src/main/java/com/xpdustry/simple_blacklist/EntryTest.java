@@ -0,0 +1,143 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.PlayerLogger;
+import com.xpdustry.simple_blacklist.util.Strings;
+
+import arc.Core;
+import arc.struct.ObjectMap;
+import arc.struct.Seq;
+import arc.util.Reflect;
+
+import mindustry.net.Administration.PlayerInfo;
+
+import static mindustry.Vars.netServer;
+
+
+/** 
+ * Dry-run of a nickname or regex entry against every name recorded in the player database. <br>
+ * Records are collected on the main thread, evaluated in parallel on the common fork-join pool, 
+ * then the report is logged back on the main thread.
+ */
+public class EntryTest {
+  /** Maximum number of hit players shown in the report */
+  public static final int sampleSize = 10;
+  
+  /** 
+   * Starts the test of the {@code value}, as a nickname or as a regex. Must be called on the main thread.
+   * @return {@code false} if the player database cannot be accessed.
+   */
+  public static boolean start(String value, Pattern pattern, Logger logger) {
+    ObjectMap<String, PlayerInfo> infos;
+    try { infos = Reflect.get(netServer.admins, "playerInfo"); } 
+    catch (Exception e) { return false; }
+    if (infos == null) return false;
+    
+    // Names are copied, because they can be modified while testing
+    Record[] records = new Record[infos.size];
+    int i = 0;
+    for (PlayerInfo info : infos.values()) {
+      String[] names = info.names == null ? new String[0] : info.names.toArray(String.class);
+      records[i++] = new Record(info.id, info.lastName, info.admin, names);
+    }
+    Record[] list = i == records.length ? records : java.util.Arrays.copyOf(records, i);
+    
+    boolean caseSensitive = Config.nameCaseSensitive.get();
+    String lower = value == null ? null : value.toLowerCase();
+    long start = arc.util.Time.millis();
+    
+    ForkJoinPool.commonPool().execute(() -> {
+      AtomicInteger hits = new AtomicInteger(), admins = new AtomicInteger();
+      Seq<Record> sample = new Seq<>(false, sampleSize);
+      
+      try {
+        java.util.Arrays.stream(list).parallel().forEach(r -> {
+          if (!matches(r, value, lower, pattern, caseSensitive)) return;
+          hits.incrementAndGet();
+          if (r.admin) admins.incrementAndGet();
+          synchronized (sample) { if (sample.size < sampleSize) sample.add(r); }
+        });
+      } catch (Throwable e) {
+        Core.app.post(() -> logger.err("Failed to test the entry", e));
+        return;
+      }
+      
+      long duration = arc.util.Time.millis() - start;
+      Core.app.post(() -> report(logger, list.length, hits.get(), admins.get(), sample, duration));
+    });
+    return true;
+  }
+  
+  private static boolean matches(Record record, String value, String lower, Pattern pattern, boolean caseSensitive) {
+    for (String name : record.names) {
+      String normalised = Strings.normalise(name);
+      if (pattern != null) {
+        if (pattern.matcher(normalised).matches()) return true;
+      } else if (caseSensitive ? normalised.contains(value) : normalised.toLowerCase().contains(lower)) 
+        return true;
+    }
+    return false;
+  }
+  
+  private static void report(Logger logger, int total, int hits, int admins, Seq<Record> sample, long duration) {
+    if (hits == 0) {
+      logger.info("The entry would hit none of the @ known players. &fi(took @ms)", total, duration);
+      return;
+    }
+    
+    logger.info("The entry would hit @ of the @ known players, including @ admin(s). &fi(took @ms)", 
+                hits, total, admins, duration);
+    StringBuilder builder = new StringBuilder("Sample:\n");
+    sample.each(r -> {
+      String name = Strings.normalise(r.lastName);
+      if (logger instanceof PlayerLogger) name = name.replace("[", "[[");
+      builder.append("&lk|&fr ").append(name).append(" &fi[").append(r.id).append("]")
+             .append(r.admin ? " (admin)" : "").append("&fr\n");
+    });
+    logger.info(builder.toString());
+  }
+  
+  
+  private static class Record {
+    final String id, lastName;
+    final boolean admin;
+    final String[] names;
+    
+    Record(String id, String lastName, boolean admin, String[] names) {
+      this.id = id;
+      this.lastName = lastName == null ? "" : lastName;
+      this.admin = admin;
+      this.names = names;
+    }
+  }
+}
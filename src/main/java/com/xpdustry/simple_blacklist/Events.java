@@ -28,20 +28,56 @@ package com.xpdustry.simple_blacklist;
 
 import java.util.regex.Pattern;
 
+import com.xpdustry.simple_blacklist.util.Strings;
+
+import arc.func.Cons;
+import arc.struct.ObjectMap;
+import arc.struct.Seq;
 import arc.util.Nullable;
 import mindustry.net.NetConnection;
 import mindustry.net.Packets.ConnectPacket;
 
 
 public class Events {
+  private static ObjectMap<Object, Seq<Cons<?>>> listeners;
+  private static boolean listenersUnavailable;
+  
+  /** @return the listeners map of {@link arc.Events}, or {@code null} if not accessible. */
+  public static ObjectMap<Object, Seq<Cons<?>>> getListeners() {
+    if (listeners == null && !listenersUnavailable) {
+      try { listeners = arc.util.Reflect.get(arc.Events.class, "events"); } 
+      catch (RuntimeException e) { listenersUnavailable = true; }
+    }
+    return listeners;
+  }
+  
+  /** 
+   * @return whether at least one listener is registered for the {@code type} of event. 
+   *         Or {@code true} if the listeners map cannot be accessed.
+   */
+  public static boolean hasListeners(Class<?> type) {
+    ObjectMap<Object, Seq<Cons<?>>> map = getListeners();
+    if (map == null) return true;
+    Seq<Cons<?>> seq = map.get(type);
+    return seq != null && seq.size > 0;
+  }
+  
+  
   public static class CheckingNicknameEvent {
     public final String name, uuid;
+    /** The nickname without colors and glyphs, as checked by the blacklist */
+    public final String normalised;
     public final NetConnection con;
     public final @Nullable ConnectPacket packet;
     
 
     public CheckingNicknameEvent(String name, String uuid, NetConnection con, ConnectPacket packet) {
+      this(name, Strings.normalise(name), uuid, con, packet);
+    }
+    
+    public CheckingNicknameEvent(String name, String normalised, String uuid, NetConnection con, ConnectPacket packet) {
       this.name = name;
+      this.normalised = normalised;
       this.uuid = uuid;
       this.con = con;
       this.packet = packet;
@@ -50,12 +86,20 @@ public class Events {
   
   public static class BlacklistedNicknameEvent {
     public final String name, uuid;
+    /** The nickname without colors and glyphs, as checked by the blacklist */
+    public final String normalised;
     public final NetConnection con;
     public final @Nullable ConnectPacket packet;
     
 
     public BlacklistedNicknameEvent(String name, String uuid, NetConnection con, ConnectPacket packet) {
+      this(name, Strings.normalise(name), uuid, con, packet);
+    }
+    
+    public BlacklistedNicknameEvent(String name, String normalised, String uuid, NetConnection con, 
+                                    ConnectPacket packet) {
       this.name = name;
+      this.normalised = normalised;
       this.uuid = uuid;
       this.con = con;
       this.packet = packet;
@@ -82,4 +126,26 @@ public class Events {
       this.uses = uses;
     }
   }
+  
+  
+  /** 
+   * Fired periodically with the counters aggregated since the previous one. <br>
+   * Only fired if something happened and if someone is listening.
+   */
+  public static class BlacklistStatsEvent {
+    /** Duration covered by the counters, in milliseconds */
+    public final long duration;
+    public final long checked, blacklisted, nameHits, regexHits, throttled, alreadyBanned;
+    
+    public BlacklistStatsEvent(long duration, long checked, long blacklisted, long nameHits, long regexHits, 
+                               long throttled, long alreadyBanned) {
+      this.duration = duration;
+      this.checked = checked;
+      this.blacklisted = blacklisted;
+      this.nameHits = nameHits;
+      this.regexHits = regexHits;
+      this.throttled = throttled;
+      this.alreadyBanned = alreadyBanned;
+    }
+  }
 }
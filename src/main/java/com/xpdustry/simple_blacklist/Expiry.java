@@ -0,0 +1,178 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.TimingWheel;
+
+import arc.Core;
+import arc.struct.ObjectMap;
+import arc.util.serialization.JsonValue;
+
+
+/** 
+ * Expiry times of temporary list entries, kept in the config. <br>
+ * Entries are scheduled in a {@link TimingWheel}, advanced every second on the main thread, 
+ * and removed through the {@link Manager}, so the matcher is updated incrementally.
+ */
+public class Expiry {
+  public static final String key = "expiry";
+  /** Precision of expiry times, in milliseconds */
+  public static final long tickMillis = 1000;
+  
+  private static final Logger logger = new Logger();
+  private static final TimingWheel<String> namesWheel = new TimingWheel<>(512, tickMillis, now()),
+                                           regexWheel = new TimingWheel<>(512, tickMillis, now());
+  private static final ObjectMap<String, TimingWheel.Node<String>> names = new ObjectMap<>(), 
+                                                                    regex = new ObjectMap<>();
+  private static boolean dirty;
+  
+  public static void init() {
+    arc.util.Timer.schedule(() -> Core.app.post(Expiry::tick), tickMillis / 1000f, tickMillis / 1000f);
+  }
+  
+  /** Removes expired entries. Must be called on the main thread. */
+  public static synchronized void tick() {
+    long now = now();
+    namesWheel.advance(now, name -> {
+      names.remove(name);
+      dirty = true;
+      if (Manager.removeName(name)) logger.info("Nickname '@' expired and was removed from the list.", name);
+    });
+    regexWheel.advance(now, pattern -> {
+      regex.remove(pattern);
+      dirty = true;
+      if (Manager.removeRegex(pattern)) logger.info("Regex '@' expired and was removed from the list.", pattern);
+    });
+  }
+  
+  /** Sets the expiry time of the nickname entry, in milliseconds since epoch. */
+  public static synchronized void expireName(String name, long deadline) {
+    schedule(namesWheel, names, name, deadline);
+  }
+  
+  /** Sets the expiry time of the regex entry, in milliseconds since epoch. */
+  public static synchronized void expireRegex(String pattern, long deadline) {
+    schedule(regexWheel, regex, pattern, deadline);
+  }
+  
+  /** Makes the nickname entry permanent. */
+  public static synchronized void forgetName(String name) {
+    forget(namesWheel, names, name);
+  }
+  
+  /** Makes the regex entry permanent. */
+  public static synchronized void forgetRegex(String pattern) {
+    forget(regexWheel, regex, pattern);
+  }
+  
+  public static synchronized void clearNames() {
+    if (names.isEmpty()) return;
+    namesWheel.clear();
+    names.clear();
+    dirty = true;
+  }
+  
+  public static synchronized void clearRegex() {
+    if (regex.isEmpty()) return;
+    regexWheel.clear();
+    regex.clear();
+    dirty = true;
+  }
+  
+  /** @return the expiry time of the nickname entry, or {@code 0} if permanent */
+  public static synchronized long ofName(String name) {
+    TimingWheel.Node<String> node = names.get(name);
+    return node == null ? 0 : node.deadline;
+  }
+  
+  /** @return the expiry time of the regex entry, or {@code 0} if permanent */
+  public static synchronized long ofRegex(String pattern) {
+    TimingWheel.Node<String> node = regex.get(pattern);
+    return node == null ? 0 : node.deadline;
+  }
+  
+  /** Loads expiry times from the config, unless there are unsaved modifications. */
+  public static synchronized void load() {
+    if (dirty) return;
+    namesWheel.clear();
+    regexWheel.clear();
+    names.clear();
+    regex.clear();
+    
+    JsonValue json = Config.settings.getRaw(key);
+    if (json == null || !json.isObject()) return;
+    load(json.get("names"), namesWheel, names);
+    load(json.get("regex"), regexWheel, regex);
+    dirty = false;
+  }
+  
+  /** Puts expiry times in the settings. Must be called before saving the settings. */
+  public static synchronized void save() {
+    if (!dirty) return;
+    JsonValue json = new JsonValue(JsonValue.ValueType.object);
+    json.addChild("names", toJson(names));
+    json.addChild("regex", toJson(regex));
+    Config.settings.put(key, json);
+    dirty = false;
+  }
+  
+  private static void schedule(TimingWheel<String> wheel, ObjectMap<String, TimingWheel.Node<String>> nodes, 
+                               String entry, long deadline) {
+    wheel.cancel(nodes.get(entry));
+    nodes.put(entry, wheel.schedule(entry, deadline));
+    dirty = true;
+  }
+  
+  private static void forget(TimingWheel<String> wheel, ObjectMap<String, TimingWheel.Node<String>> nodes, 
+                             String entry) {
+    TimingWheel.Node<String> node = nodes.remove(entry);
+    if (node == null) return;
+    wheel.cancel(node);
+    dirty = true;
+  }
+  
+  private static void load(JsonValue json, TimingWheel<String> wheel, 
+                           ObjectMap<String, TimingWheel.Node<String>> nodes) {
+    if (json == null || !json.isObject()) return;
+    for (JsonValue entry = json.child; entry != null; entry = entry.next) {
+      if (entry.isNumber()) nodes.put(entry.name, wheel.schedule(entry.name, entry.asLong()));
+    }
+  }
+  
+  private static JsonValue toJson(ObjectMap<String, TimingWheel.Node<String>> nodes) {
+    JsonValue json = new JsonValue(JsonValue.ValueType.object);
+    for (ObjectMap.Entry<String, TimingWheel.Node<String>> e : nodes) json.addChild(e.key, new JsonValue(e.value.deadline));
+    return json;
+  }
+  
+  private static long now() {
+    return System.currentTimeMillis();
+  }
+}
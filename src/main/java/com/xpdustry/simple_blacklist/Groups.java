@@ -0,0 +1,456 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.util.ListFile;
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.NameArena;
+import com.xpdustry.simple_blacklist.util.RegexAnalyzer;
+
+import arc.struct.ObjectIntMap;
+import arc.struct.Seq;
+import arc.util.serialization.JsonValue;
+
+
+/** 
+ * Named blacklist groups, like {@code ads} or {@code slurs}, each with its own lists, 
+ * enable flag, working mode and kick message. <br>
+ * Each group is compiled in its own {@link ListMatcher}, so an edit only updates that group, 
+ * and disabled groups are not checked at all. Groups are checked after the main lists, 
+ * in creation order, and kept in the config under {@link #key}. <br>
+ * Entries of a group can also be read from a {@link ListFile}, for very large lists. 
+ * They are then not kept in the config, and only edited through the file.
+ */
+public class Groups {
+  public static final String key = "groups";
+  
+  private static final Logger logger = new Logger();
+  private static final Seq<Group> all = new Seq<>();
+  /** All and enabled groups, replaced on each change, so checks and metrics can run from any thread */
+  private static volatile Group[] groups = new Group[0], enabled = groups;
+  /** Whether groups were edited, or only uses of entries counted, since the last save */
+  private static boolean dirty, counted;
+  
+  /** @return the group named {@code name}, or {@code null} if not found */
+  public static synchronized Group get(String name) {
+    return all.find(g -> g.name.equals(name));
+  }
+  
+  /** @return a copy of all groups, without locking */
+  public static Seq<Group> all() {
+    return Seq.with(groups);
+  }
+  
+  /** @return whether at least one group is enabled, without locking */
+  public static boolean anyEnabled() {
+    return enabled.length > 0;
+  }
+  
+  /** @return whether the {@code name} can be used for a group */
+  public static boolean isValidName(String name) {
+    return name.matches("[a-z0-9_-]{1,32}");
+  }
+  
+  /** @return the new group, or {@code null} if the name is already used */
+  public static synchronized Group create(String name) {
+    if (get(name) != null) return null;
+    Group group = new Group(name);
+    group.rebuild();
+    all.add(group);
+    changed();
+    return group;
+  }
+  
+  /** @return {@code false} if the group was not found */
+  public static synchronized boolean delete(String name) {
+    Group group = get(name);
+    if (group == null) return false;
+    all.remove(group);
+    changed();
+    return true;
+  }
+  
+  public static synchronized void setEnabled(Group group, boolean enabled) {
+    group.enabled = enabled;
+    changed();
+  }
+  
+  /** @param mode {@code null} to use the global working mode */
+  public static synchronized void setMode(Group group, Config.WorkingMode mode) {
+    group.mode = mode;
+    dirty = true;
+  }
+  
+  /** @param message {@code null} to use the global kick message */
+  public static synchronized void setMessage(Group group, String message) {
+    group.message = message;
+    dirty = true;
+  }
+  
+  /** 
+   * Replaces the entries of the group by the content of the list {@code file}. 
+   * @param file relative to the config directory, or {@code null} to keep entries in the config again, 
+   *             starting with empty lists
+   * @return the read result, or {@code null} if {@code file} is {@code null}
+   * @throws IOException if the file cannot be read, the group is then left unchanged
+   */
+  public static synchronized ListFile.Result setFile(Group group, String file) throws IOException {
+    ListFile.Result result = null;
+    if (file != null) result = read(group, file);
+    else {
+      group.names = new NameArena();
+      group.regex = new ObjectIntMap<>();
+      group.fileStamp = 0;
+    }
+    group.file = file;
+    group.rebuild();
+    vet(group);
+    dirty = true;
+    return result;
+  }
+  
+  /** @return {@code false} if the {@code name} is already in the group */
+  public static synchronized boolean addName(Group group, String name) {
+    if (group.names.containsKey(name)) return false;
+    group.names.put(name, 0);
+    group.matcher.addName(name);
+    dirty = true;
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code name} is not in the group */
+  public static synchronized boolean removeName(Group group, String name) {
+    if (!group.names.remove(name)) return false;
+    group.matcher.removeName(name);
+    dirty = true;
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code pattern} is already in the group */
+  public static synchronized boolean addRegex(Group group, Pattern pattern) {
+    if (group.findRegex(pattern.pattern()) != null) return false;
+    group.regex.put(pattern, 0);
+    group.matcher.addRegex(pattern);
+    dirty = true;
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code pattern} is not in the group */
+  public static synchronized boolean removeRegex(Group group, String pattern) {
+    Pattern found = group.findRegex(pattern);
+    if (found == null) return false;
+    group.regex.remove(found);
+    group.matcher.removeRegex(pattern);
+    dirty = true;
+    return true;
+  }
+  
+  /** 
+   * Checks the already normalised {@code name} against enabled groups, without counting anything. 
+   * Can be called from any thread.
+   * @return the first matching entry, or {@code null} if none
+   */
+  public static Hit find(String name, boolean caseSensitive) {
+    for (Group group : enabled) {
+      String found = group.matcher.matchName(name, caseSensitive);
+      if (found != null) return new Hit(group, found);
+      Pattern pattern = group.matcher.matchRegex(name);
+      if (pattern != null) return new Hit(group, pattern);
+    }
+    return null;
+  }
+  
+  /** 
+   * Counts the use of an entry found by {@link #find(String, boolean)}. Must be called on the main thread.
+   * @return the group and the entry, or {@code null} if the entry was removed.
+   */
+  static synchronized String count(Hit hit) {
+    Group group = hit.group;
+    String entry;
+    if (hit.entry instanceof String) {
+      if (!group.names.containsKey((String)hit.entry)) return null;
+      group.names.increment((String)hit.entry);
+      entry = (String)hit.entry;
+    } else {
+      Pattern pattern = (Pattern)hit.entry;
+      if (!group.regex.containsKey(pattern)) return null;
+      group.regex.increment(pattern);
+      entry = '/' + pattern.pattern() + '/';
+    }
+    group.hits.increment();
+    counted = true;
+    return group.name + ':' + entry;
+  }
+  
+  /** Rebuilds the matchers of all groups. Must be called when the compact mode is changed. */
+  public static synchronized void rebuild() {
+    all.each(Group::rebuild);
+  }
+  
+  /** @return completed when the matchers of all groups are compiled */
+  public static synchronized CompletableFuture<Void> compiled() {
+    return CompletableFuture.allOf(all.map(g -> g.compiled).toArray(CompletableFuture.class));
+  }
+  
+  /** Reorders the entries of enabled groups, by hits, in background. Can be called from any thread. */
+  public static void reorder() {
+    for (Group group : enabled) group.matcher.reorderAsync();
+  }
+  
+  /** @return whether groups have unsaved modifications */
+  public static synchronized boolean modified() {
+    return dirty || counted;
+  }
+  
+  /** 
+   * Loads groups from the config, unless there are unsaved edits. Uses counted since the last save are lost. <br>
+   * List files are only read again if modified, else the group is kept as is.
+   */
+  public static synchronized void load() {
+    if (dirty) return;
+    Seq<Group> previous = all.copy();
+    all.clear();
+    
+    JsonValue json = Config.settings.getRaw(key);
+    if (json != null && json.isObject()) {
+      for (JsonValue child = json.child; child != null; child = child.next) {
+        if (!child.isObject() || !isValidName(child.name)) continue;
+        String name = child.name, file = child.getString("file", null);
+        Group old = previous.find(g -> g.name.equals(name)), group;
+        
+        if (file != null && old != null && file.equals(old.file) && old.fileStamp != 0 && 
+            old.fileStamp == stamp(resolve(file))) 
+          group = old;
+        else group = new Group(name, old == null ? new LongAdder() : old.hits);
+        group.enabled = child.getBoolean("enabled", true);
+        String mode = child.getString("mode", null);
+        group.mode = null;
+        try { group.mode = mode == null ? null : Config.WorkingMode.valueOf(mode); } 
+        catch (IllegalArgumentException e) { 
+          logger.err("Invalid working mode of group '@', using the global one.", group.name); 
+        }
+        group.message = child.getString("message", null);
+        
+        if (group == old) {
+          all.add(group);
+          continue;
+        } else if (file != null) {
+          group.file = file;
+          try { read(group, file); }
+          catch (IOException e) { logger.err("Unable to read the list file of group '@': @", name, e.toString()); }
+          group.rebuild();
+          vet(group);
+          all.add(group);
+          continue;
+        }
+        
+        JsonValue names = child.get("names"), regex = child.get("regex");
+        if (names != null) {
+          for (JsonValue n = names.child; n != null; n = n.next) group.names.put(n.name, n.asInt());
+        }
+        if (regex != null) {
+          for (JsonValue r = regex.child; r != null; r = r.next) {
+            try { group.regex.put(Pattern.compile(r.name), r.asInt()); }
+            catch (java.util.regex.PatternSyntaxException e) { 
+              logger.err("Ignoring invalid regex '@' of group '@'.", r.name, group.name); 
+            }
+          }
+        }
+        
+        group.rebuild();
+        vet(group);
+        all.add(group);
+      }
+    }
+    
+    changed();
+    dirty = counted = false;
+  }
+  
+  /** Puts groups in the settings. Must be called before saving the settings. */
+  public static synchronized void save() {
+    if (!dirty && !counted) return;
+    JsonValue json = new JsonValue(JsonValue.ValueType.object);
+    for (Group group : all) {
+      JsonValue g = new JsonValue(JsonValue.ValueType.object), names = new JsonValue(JsonValue.ValueType.object), 
+                regex = new JsonValue(JsonValue.ValueType.object);
+      g.addChild("enabled", new JsonValue(group.enabled));
+      if (group.mode != null) g.addChild("mode", new JsonValue(group.mode.name()));
+      if (group.message != null) g.addChild("message", new JsonValue(group.message));
+      if (group.file != null) {
+        g.addChild("file", new JsonValue(group.file));
+        json.addChild(group.name, g);
+        continue;
+      }
+      for (NameArena.Entry e : group.names) names.addChild(e.key, new JsonValue(e.value));
+      for (ObjectIntMap.Entry<Pattern> e : group.regex) regex.addChild(e.key.pattern(), new JsonValue(e.value));
+      g.addChild("names", names);
+      g.addChild("regex", regex);
+      json.addChild(group.name, g);
+    }
+    Config.settings.put(key, json);
+    dirty = counted = false;
+  }
+  
+  /** Reads the list {@code file} in new lists of the {@code group}, without rebuilding its matcher */
+  private static ListFile.Result read(Group group, String file) throws IOException {
+    File f = resolve(file);
+    NameArena names = new NameArena();
+    ObjectIntMap<Pattern> regex = new ObjectIntMap<>();
+    int[] invalid = {0};
+    long start = System.nanoTime();
+    
+    ListFile.Result result = ListFile.read(f, names, p -> {
+      try { regex.put(Pattern.compile(p), 0); }
+      catch (java.util.regex.PatternSyntaxException e) { invalid[0]++; }
+    });
+    result.regex -= invalid[0];
+    result.skipped += invalid[0];
+    
+    group.names = names;
+    group.regex = regex;
+    group.fileStamp = stamp(f);
+    logger.info("Read @ nickname(s) and @ regex of group '@' from '@', in @ms.", result.names, result.regex, 
+                group.name, file, (System.nanoTime() - start) / 1_000_000);
+    if (result.skipped > 0) 
+      logger.warn("Ignored @ line(s) of '@', too long or with an invalid regex.", result.skipped, file);
+    return result;
+  }
+  
+  /** Checks regex of the group in background, only logging issues */
+  private static void vet(Group group) {
+    String source = group.file == null ? "group '" + group.name + "'" : "'" + group.file + "'";
+    RegexAnalyzer.vetAll(group.regex.keys().toArray(), source);
+  }
+  
+  private static File resolve(String file) {
+    File f = new File(file);
+    return f.isAbsolute() ? f : new File(Config.settings.getFile().parent().file(), file);
+  }
+  
+  /** @return a value changed when the file is modified, or {@code 0} if it doesn't exist */
+  private static long stamp(File file) {
+    return file.lastModified() * 31 + file.length();
+  }
+  
+  private static void changed() {
+    groups = all.toArray(Group.class);
+    enabled = all.select(g -> g.enabled).toArray(Group.class);
+    dirty = true;
+  }
+  
+  
+  public static class Group {
+    public final String name;
+    /** Replaced when the list file is read. Must only be edited through {@link Groups} */
+    NameArena names = new NameArena();
+    ObjectIntMap<Pattern> regex = new ObjectIntMap<>();
+    /** Names blacklisted by this group since the server start */
+    public final LongAdder hits;
+    final ListMatcher matcher = new ListMatcher();
+    boolean enabled = true;
+    /** {@code null} to use the global setting */
+    Config.WorkingMode mode;
+    String message;
+    /** List file of the group, relative to the config directory, or {@code null} if entries are in the config */
+    String file;
+    long fileStamp;
+    /** Completed when the trie of the matcher is built */
+    CompletableFuture<Void> compiled = CompletableFuture.completedFuture(null);
+    
+    Group(String name) {
+      this(name, new LongAdder());
+    }
+    
+    Group(String name, LongAdder hits) {
+      this.name = name;
+      this.hits = hits;
+    }
+    
+    public boolean enabled() {
+      return enabled;
+    }
+    
+    /** @return the working mode of the group, or the global one if not set */
+    public Config.WorkingMode mode() {
+      return mode == null ? Config.mode.get() : mode;
+    }
+    
+    /** @return the kick message of the group, or the global one if not set */
+    public String message() {
+      return message == null ? Config.message.get() : message;
+    }
+    
+    public boolean hasOwnMode() {
+      return mode != null;
+    }
+    
+    public boolean hasOwnMessage() {
+      return message != null;
+    }
+    
+    /** @return the list file, or {@code null} if entries are in the config */
+    public String file() {
+      return file;
+    }
+    
+    public int size() {
+      return names.size + regex.size;
+    }
+
+    
+    Pattern findRegex(String pattern) {
+      for (Pattern p : regex.keys()) {
+        if (p.pattern().equals(pattern)) return p;
+      }
+      return null;
+    }
+    
+    void rebuild() {
+      compiled = matcher.rebuildAsync(names, regex, Config.compactNames.get());
+    }
+  }
+  
+  
+  /** Entry of a group found by {@link Groups#find(String, boolean)} */
+  public static class Hit {
+    public final Group group;
+    /** Nickname or {@link Pattern} */
+    public final Object entry;
+    
+    Hit(Group group, Object entry) {
+      this.group = group;
+      this.entry = entry;
+    }
+  }
+}
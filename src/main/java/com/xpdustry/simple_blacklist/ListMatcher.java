@@ -0,0 +1,627 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.util.NameArena;
+import com.xpdustry.simple_blacklist.util.NameTrie;
+
+import arc.struct.ObjectIntMap;
+
+
+/** 
+ * Compiled view of the nickname and regex lists, used to check names. <br>
+ * Nicknames are compiled into a persistent trie, so a single edit is applied in a time proportional 
+ * to the entry length, and checks always run against a consistent view, even while lists are edited. 
+ * Regex are stored in arrays replaced on each modification. <br><br>
+ * 
+ * Entries are tested in an order driven by their hit rate, divided by their evaluation cost for regex.
+ * This order only changes when calling {@link #reorder()}, so between two calls, a name is always 
+ * attributed to the same entry. <br><br>
+ * 
+ * In compact mode, nicknames are not copied, but checked directly in the {@link NameArena} of the list.
+ * This saves a {@link String} and the trie nodes per entry, at the cost of slower checks. 
+ * This is also the fallback while the trie is built in background, by {@link #rebuildAsync}.
+ */
+public class ListMatcher {
+  /** Interval, in seconds, between two {@link #reorder()} */
+  public static final float reorderInterval = 60f;
+  /** Factor applied to hits at each {@link #reorder()}, so old hits weigh less over time */
+  public static final float decay = 0.5f;
+  /** One check out of this number measures the evaluation cost of regex */
+  public static final int costSampling = 16;
+  /** Ids of removed nicknames are compacted in background above this number, and above the live ones */
+  public static final int compactThreshold = 1024;
+  
+  private volatile View view = new View(TrieNames.of(new NameArena()), new Pattern[0]);
+  private int checks;
+  private boolean compacting;
+  /** Incremented on each rebuild, to drop background builds of older lists */
+  private int generation;
+  
+  /** 
+   * Replaces all entries by the content of lists, ordered by their uses.
+   * @param compact whether to check nicknames directly in the arena of the list, which must then be kept up to date
+   */
+  public synchronized void rebuild(NameArena namesList, ObjectIntMap<Pattern> regexList, boolean compact) {
+    generation++;
+    View v = new View(compact ? ArenaNames.of(namesList) : TrieNames.of(namesList), new Pattern[regexList.size]);
+    int i = 0;
+    for (ObjectIntMap.Entry<Pattern> e : regexList) {
+      v.regexes[i] = e.key;
+      v.regexHits[i++] = e.value;
+    }
+    view = sorted(v, 1f);
+  }
+  
+  /** 
+   * Same as {@link #rebuild(NameArena, ObjectIntMap, boolean)}, but the trie is built in background, 
+   * on the common fork-join pool, so several matchers are built in parallel. <br>
+   * Until then, nicknames are checked in the arena of the list, like in compact mode, which must be kept up to date.
+   * @return completed when the trie is used, or immediately in compact mode
+   */
+  public synchronized CompletableFuture<Void> rebuildAsync(NameArena namesList, ObjectIntMap<Pattern> regexList, 
+                                                           boolean compact) {
+    rebuild(namesList, regexList, true);
+    if (compact) return CompletableFuture.completedFuture(null);
+    ArenaNames fallback = (ArenaNames)view.names;
+    int started = generation;
+    return CompletableFuture.runAsync(() -> compile(fallback, started), ForkJoinPool.commonPool());
+  }
+  
+  public synchronized void addName(String name) {
+    View v = view;
+    Names n = v.names.add(name);
+    if (n != v.names) view = new View(v, n);
+  }
+  
+  public synchronized void removeName(String name) {
+    View v = view;
+    Names n = v.names.remove(name);
+    if (n == v.names) return;
+    view = new View(v, n);
+    
+    if (!compacting && n.needsCompaction()) {
+      compacting = true;
+      ForkJoinPool.commonPool().execute(() -> compact(n));
+    }
+  }
+  
+  public synchronized void addRegex(Pattern pattern) {
+    View v = view, n = new View(v.names, append(v.regexes, pattern, new Pattern[v.regexes.length+1]));
+    copyRegexStats(v, n);
+    view = n;
+  }
+  
+  public synchronized void removeRegex(String pattern) {
+    View v = view;
+    for (int i=0; i<v.regexes.length; i++) {
+      if (v.regexes[i].pattern().equals(pattern)) {
+        View n = new View(v.names, remove(v.regexes, i, new Pattern[v.regexes.length-1]));
+        remove(v.regexHits, i, n.regexHits);
+        remove(v.regexCosts, i, n.regexCosts);
+        view = n;
+        return;
+      }
+    }
+  }
+  
+  /** 
+   * Sorts entries by their score, then applies the {@link #decay} to hits. <br>
+   * Entries with the same score keep their relative order.
+   */
+  public synchronized void reorder() {
+    view = sorted(view, decay);
+  }
+  
+  /** 
+   * Same as {@link #reorder()}, but the new order is computed on the common fork-join pool, 
+   * then applied on the main thread, unless entries were edited meanwhile. 
+   * Can be called from any thread.
+   */
+  public void reorderAsync() {
+    View v = view;
+    ForkJoinPool.commonPool().execute(() -> {
+      View sorted = sorted(v, decay);
+      arc.Core.app.post(() -> {
+        synchronized (this) { if (view == v) view = sorted; }
+      });
+    });
+  }
+  
+  public int nameCount() {
+    return view.names.count();
+  }
+  
+  public int regexCount() {
+    return view.regexes.length;
+  }
+  
+  /** @return a copy of the nickname entries, in check order, safe to use from any thread */
+  public String[] names() {
+    return view.names.toArray();
+  }
+  
+  /** @return a copy of the regex entries, safe to use from any thread */
+  public Pattern[] regexes() {
+    return view.regexes.clone();
+  }
+  
+  /** 
+   * @param name must be already normalised
+   * @return the first entry of nickname list contained in the {@code name}, or {@code null} if none.
+   */
+  public String matchName(String name, boolean caseSensitive) {
+    return view.names.match(name, caseSensitive);
+  }
+  
+  /** 
+   * @param name must be already normalised
+   * @return the first pattern matching with the {@code name}, or {@code null} if none.
+   */
+  public Pattern matchRegex(String name) {
+    View v = view;
+    // Stats are only an heuristic, so concurrent updates are allowed to be lost
+    boolean measure = checks++ % costSampling == 0;
+    
+    for (int i=0; i<v.regexes.length; i++) {
+      boolean matches;
+      if (measure) {
+        long start = System.nanoTime();
+        matches = v.regexes[i].matcher(name).matches();
+        float cost = System.nanoTime() - start;
+        v.regexCosts[i] = v.regexCosts[i] == 0 ? cost : v.regexCosts[i] + (cost - v.regexCosts[i]) * 0.2f;
+      } else matches = v.regexes[i].matcher(name).matches();
+      
+      if (matches) {
+        v.regexHits[i]++;
+        return v.regexes[i];
+      }
+    }
+    return null;
+  }
+  
+  /** 
+   * Rebuilds the nicknames without removed ids, in background. 
+   * If they were edited meanwhile, the compaction restarts from the new ones, while still needed.
+   */
+  private void compact(Names names) {
+    try {
+      while (true) {
+        Names compacted = names.compacted();
+        synchronized (this) {
+          View v = view;
+          if (v.names == names) {
+            view = new View(v, compacted);
+            return;
+          }
+          names = v.names;
+          if (!names.needsCompaction()) return;
+        }
+      }
+    } finally {
+      synchronized (this) { compacting = false; }
+    }
+  }
+  
+  
+  /** 
+   * Builds the trie of the fallback nicknames, in background. 
+   * If they were edited or reordered meanwhile, the build restarts from the new ones, unless the matcher was rebuilt.
+   */
+  private void compile(ArenaNames names, int started) {
+    while (true) {
+      TrieNames compiled = TrieNames.of(names);
+      synchronized (this) {
+        View v = view;
+        if (generation != started) return;
+        else if (v.names == names) {
+          view = new View(v, compiled);
+          return;
+        }
+        names = (ArenaNames)v.names;
+      }
+    }
+  }
+  
+  
+  /** @return a new view with entries sorted by score, and hits multiplied by {@code factor} */
+  private static View sorted(View v, float factor) {
+    int[] regexOrder = order(v.regexHits, v.regexCosts);
+    View n = new View(v.names.reordered(factor), new Pattern[v.regexes.length]);
+    
+    for (int i=0; i<regexOrder.length; i++) {
+      int o = regexOrder[i];
+      n.regexes[i] = v.regexes[o];
+      n.regexHits[i] = v.regexHits[o] * factor;
+      n.regexCosts[i] = v.regexCosts[o];
+    }
+    return n;
+  }
+  
+  /** 
+   * @param costs can be {@code null} to only use hits
+   * @return indexes sorted by decreasing hits per nanosecond of evaluation 
+   */
+  private static int[] order(float[] hits, float[] costs) {
+    // Keys are the inverted score in the high bits and the index in the low bits, to sort primitives. 
+    // So entries with the same score keep their order.
+    long[] keys = new long[hits.length];
+    for (int i=0; i<keys.length; i++) {
+      // Unmeasured entries are considered as cheap, to get measured soon
+      float score = costs == null ? hits[i] : (hits[i] + 1) / Math.max(costs[i], 1f);
+      int bits = Float.floatToIntBits(score);
+      // Same order as the float, when compared as an int
+      bits ^= (bits >> 31) & 0x7fffffff;
+      keys[i] = (long)~bits << 32 | i;
+    }
+    java.util.Arrays.sort(keys);
+    
+    int[] order = new int[keys.length];
+    for (int i=0; i<order.length; i++) order[i] = (int)keys[i];
+    return order;
+  }
+  
+  private static void copyRegexStats(View from, View to) {
+    System.arraycopy(from.regexHits, 0, to.regexHits, 0, from.regexHits.length);
+    System.arraycopy(from.regexCosts, 0, to.regexCosts, 0, from.regexCosts.length);
+  }
+  
+  private static <T> T[] append(T[] array, T value, T[] dest) {
+    System.arraycopy(array, 0, dest, 0, array.length);
+    dest[array.length] = value;
+    return dest;
+  }
+  
+  private static <T> T[] remove(T[] array, int index, T[] dest) {
+    System.arraycopy(array, 0, dest, 0, index);
+    System.arraycopy(array, index+1, dest, index, array.length-index-1);
+    return dest;
+  }
+  
+  private static void remove(float[] array, int index, float[] dest) {
+    System.arraycopy(array, 0, dest, 0, index);
+    System.arraycopy(array, index+1, dest, index, array.length-index-1);
+  }
+  
+  
+  /** Snapshot of entries. Entries are immutable, only stats are updated. */
+  private static class View {
+    final Names names;
+    final Pattern[] regexes;
+    /** Decayed number of hits of each regex */
+    final float[] regexHits;
+    /** Average evaluation time of each regex, in nanoseconds, or {@code 0} if not measured yet */
+    final float[] regexCosts;
+    
+    View(Names names, Pattern[] regexes) {
+      this.names = names;
+      this.regexes = regexes;
+      this.regexHits = new float[regexes.length];
+      this.regexCosts = new float[regexes.length];
+    }
+    
+    /** Same regex and stats as {@code v}, with other nicknames */
+    View(View v, Names names) {
+      this.names = names;
+      this.regexes = v.regexes;
+      this.regexHits = v.regexHits;
+      this.regexCosts = v.regexCosts;
+    }
+  }
+  
+  
+  /** Immutable snapshot of nicknames. Modifications return a new snapshot, or the same if nothing changed. */
+  private static abstract class Names {
+    /** @return the matching entry with the best rank, after counting its hit, or {@code null} if none */
+    abstract String match(String name, boolean caseSensitive);
+    abstract Names add(String name);
+    abstract Names remove(String name);
+    /** @return nicknames ordered by hits, then multiplied by {@code factor} */
+    abstract Names reordered(float factor);
+    abstract int count();
+    abstract String[] toArray();
+    
+    boolean needsCompaction() { return false; }
+    Names compacted() { return this; }
+  }
+  
+  
+  /** 
+   * Nicknames in a trie of their lower case, identified by an id. <br>
+   * Tables by id are shared between snapshots and only appended, so a removed id stays as a tombstone 
+   * until the next compaction. 
+   */
+  private static class TrieNames extends Names {
+    final NameTrie.Node root;
+    final String[] names;
+    /** Decayed number of hits of each id */
+    final float[] hits;
+    /** Check order of each id, lower first */
+    final int[] ranks;
+    final int nextId, live, nextRank;
+    
+    TrieNames(NameTrie.Node root, String[] names, float[] hits, int[] ranks, int nextId, int live, int nextRank) {
+      this.root = root;
+      this.names = names;
+      this.hits = hits;
+      this.ranks = ranks;
+      this.nextId = nextId;
+      this.live = live;
+      this.nextRank = nextRank;
+    }
+    
+    /** Builds a trie of the {@code list}, with the uses as hits */
+    static TrieNames of(NameArena list) {
+      String[] names = new String[Math.max(16, list.size)];
+      float[] hits = new float[names.length];
+      int[] ranks = new int[names.length];
+      NameTrie.Builder builder = new NameTrie.Builder();
+      int id = 0;
+      for (NameArena.Entry e : list) {
+        names[id] = e.key;
+        hits[id] = e.value;
+        ranks[id] = id;
+        builder.add(e.key.toLowerCase(), id++);
+      }
+      return new TrieNames(builder.build(), names, hits, ranks, id, id, id);
+    }
+    
+    /** Builds a trie of the {@code fallback}, keeping its check order and hits */
+    static TrieNames of(ArenaNames fallback) {
+      int count = fallback.slots.length;
+      String[] names = new String[Math.max(16, count)];
+      float[] hits = new float[names.length];
+      int[] ranks = new int[names.length];
+      NameTrie.Builder builder = new NameTrie.Builder();
+      for (int i=0; i<count; i++) {
+        names[i] = fallback.data.get(fallback.slots[i]);
+        hits[i] = fallback.hits[i];
+        ranks[i] = i;
+        builder.add(names[i].toLowerCase(), i);
+      }
+      return new TrieNames(builder.build(), names, hits, ranks, count, count, count);
+    }
+    
+    @Override
+    String match(String name, boolean caseSensitive) {
+      String lower = name.toLowerCase();
+      // Lower case can change the length of some special characters
+      boolean sameLength = lower.length() == name.length();
+      int best = -1, bestRank = Integer.MAX_VALUE;
+      
+      for (int i=0; i<=lower.length() && bestRank > 0; i++) {
+        NameTrie.Node node = root;
+        for (int j=i; node != null; node = j < lower.length() ? node.child(lower.charAt(j++)) : null) {
+          int[] ids = node.ids();
+          if (ids == null) continue;
+          for (int id : ids) {
+            if (ranks[id] >= bestRank) continue;
+            if (caseSensitive && !(sameLength ? name.startsWith(names[id], i) : name.contains(names[id]))) continue;
+            best = id;
+            bestRank = ranks[id];
+          }
+        }
+      }
+      
+      if (best == -1) return null;
+      hits[best]++;
+      return names[best];
+    }
+    
+    @Override
+    TrieNames add(String name) {
+      String[] n = names;
+      float[] h = hits;
+      int[] r = ranks;
+      // Only slots above the previous ids are written, so older snapshots are not affected
+      if (nextId == n.length) {
+        int capacity = n.length + (n.length >> 1);
+        n = java.util.Arrays.copyOf(n, capacity);
+        h = java.util.Arrays.copyOf(h, capacity);
+        r = java.util.Arrays.copyOf(r, capacity);
+      }
+      n[nextId] = name;
+      h[nextId] = 0;
+      r[nextId] = nextRank;
+      return new TrieNames(NameTrie.insert(root, name.toLowerCase(), nextId), n, h, r, nextId+1, live+1, nextRank+1);
+    }
+    
+    @Override
+    TrieNames remove(String name) {
+      String lower = name.toLowerCase();
+      NameTrie.Node node = NameTrie.find(root, lower);
+      if (node == null || node.ids() == null) return this;
+      for (int id : node.ids()) {
+        if (names[id].equals(name)) 
+          return new TrieNames(NameTrie.remove(root, lower, id), names, hits, ranks, nextId, live-1, nextRank);
+      }
+      return this;
+    }
+    
+    @Override
+    TrieNames reordered(float factor) {
+      int[] ids = liveIds();
+      float[] scores = new float[ids.length];
+      for (int i=0; i<ids.length; i++) scores[i] = hits[ids[i]];
+      
+      int[] r = new int[ranks.length];
+      int[] order = order(scores, null);
+      for (int i=0; i<order.length; i++) {
+        int id = ids[order[i]];
+        r[id] = i;
+        hits[id] *= factor;
+      }
+      return new TrieNames(root, names, hits, r, nextId, live, live);
+    }
+    
+    @Override
+    int count() {
+      return live;
+    }
+    
+    @Override
+    String[] toArray() {
+      int[] ids = liveIds();
+      String[] out = new String[ids.length];
+      for (int i=0; i<ids.length; i++) out[i] = names[ids[i]];
+      return out;
+    }
+    
+    @Override
+    boolean needsCompaction() {
+      return nextId - live > compactThreshold && nextId - live > live;
+    }
+    
+    @Override
+    TrieNames compacted() {
+      int[] ids = liveIds();
+      String[] n = new String[Math.max(16, ids.length)];
+      float[] h = new float[n.length];
+      int[] r = new int[n.length];
+      NameTrie.Builder builder = new NameTrie.Builder();
+      for (int i=0; i<ids.length; i++) {
+        n[i] = names[ids[i]];
+        h[i] = hits[ids[i]];
+        r[i] = i;
+        builder.add(n[i].toLowerCase(), i);
+      }
+      return new TrieNames(builder.build(), n, h, r, ids.length, ids.length, ids.length);
+    }
+    
+    /** @return ids in the trie, sorted by rank */
+    private int[] liveIds() {
+      int[] ids = new int[live];
+      NameTrie.collect(root, ids);
+      // Ranks are positive, so they can be sorted as primitive keys, with the id in the low bits
+      long[] keys = new long[ids.length];
+      for (int i=0; i<keys.length; i++) keys[i] = (long)ranks[ids[i]] << 32 | ids[i];
+      java.util.Arrays.sort(keys);
+      for (int i=0; i<keys.length; i++) ids[i] = (int)keys[i];
+      return ids;
+    }
+  }
+  
+  
+  /** Nicknames checked in the arena of the list, by slot */
+  private static class ArenaNames extends Names {
+    final NameArena arena;
+    final NameArena.Data data;
+    /** Epoch of the arena when slots were taken */
+    final int epoch;
+    /** Arena slots, in check order */
+    final int[] slots;
+    /** Decayed number of hits of each slot */
+    final float[] hits;
+    
+    ArenaNames(NameArena arena, NameArena.Data data, int epoch, int[] slots) {
+      this.arena = arena;
+      this.data = data;
+      this.epoch = epoch;
+      this.slots = slots;
+      this.hits = new float[slots.length];
+    }
+    
+    /** @return all names of the {@code arena}, with their uses as hits */
+    static ArenaNames of(NameArena arena) {
+      ArenaNames n = new ArenaNames(arena, arena.data(), arena.epoch(), new int[arena.size]);
+      for (int s=0, i=0; s<arena.slots(); s++) {
+        if (arena.isRemoved(s)) continue;
+        n.slots[i] = s;
+        n.hits[i++] = arena.valueAt(s);
+      }
+      return n;
+    }
+    
+    @Override
+    String match(String name, boolean caseSensitive) {
+      if (!caseSensitive) name = name.toLowerCase();
+      for (int i=0; i<slots.length; i++) {
+        if (data.containedIn(slots[i], name, !caseSensitive)) {
+          hits[i]++;
+          return data.get(slots[i]);
+        }
+      }
+      return null;
+    }
+    
+    @Override
+    ArenaNames add(String name) {
+      int slot = arena.find(name);
+      if (slot == -1) return this;
+      // Slots were renumbered by a compaction
+      if (arena.epoch() != epoch) return of(arena).reordered(1f);
+      
+      ArenaNames n = new ArenaNames(arena, arena.data(), epoch, java.util.Arrays.copyOf(slots, slots.length+1));
+      n.slots[slots.length] = slot;
+      System.arraycopy(hits, 0, n.hits, 0, hits.length);
+      return n;
+    }
+    
+    @Override
+    ArenaNames remove(String name) {
+      // Slots were renumbered by a compaction, the name is already removed from the arena
+      if (arena.epoch() != epoch) return of(arena).reordered(1f);
+      
+      for (int i=0; i<slots.length; i++) {
+        if (!data.equals(slots[i], name)) continue;
+        ArenaNames n = new ArenaNames(arena, data, epoch, new int[slots.length-1]);
+        System.arraycopy(slots, 0, n.slots, 0, i);
+        System.arraycopy(slots, i+1, n.slots, i, slots.length-i-1);
+        ListMatcher.remove(hits, i, n.hits);
+        return n;
+      }
+      return this;
+    }
+    
+    @Override
+    ArenaNames reordered(float factor) {
+      int[] order = order(hits, null);
+      ArenaNames n = new ArenaNames(arena, data, epoch, new int[slots.length]);
+      for (int i=0; i<order.length; i++) {
+        n.slots[i] = slots[order[i]];
+        n.hits[i] = hits[order[i]] * factor;
+      }
+      return n;
+    }
+    
+    @Override
+    int count() {
+      return slots.length;
+    }
+    
+    @Override
+    String[] toArray() {
+      String[] names = new String[slots.length];
+      for (int i=0; i<names.length; i++) names[i] = data.get(slots[i]);
+      return names;
+    }
+  }
+}
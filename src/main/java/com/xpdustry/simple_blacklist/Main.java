@@ -26,6 +26,8 @@
 
 package com.xpdustry.simple_blacklist;
 
+import com.xpdustry.simple_blacklist.metrics.MetricsServer;
+import com.xpdustry.simple_blacklist.replication.Replication;
 import com.xpdustry.simple_blacklist.util.Logger;
 import com.xpdustry.simple_blacklist.util.PlayerLogger;
 
@@ -51,9 +53,34 @@ public class Main extends mindustry.mod.Plugin {
       logger.warn("Detected an old configuration, in the server settings. Migrating the config...");
       Config.migrateOldSettings();
     }
+    // Compile lists in background, nicknames are scanned in the lists until then
+    long compileStart = System.nanoTime();
+    java.util.concurrent.CompletableFuture<Void> compiled = 
+        java.util.concurrent.CompletableFuture.allOf(Manager.rebuildMatcher(), Groups.compiled());
+    Manager.rebuildExempted();
+    Replication.init();
+    if (Config.autoReload.get()) ConfigWatcher.start(getConfig());
     
     // Register plugin listeners
     Manager.registerListeners();
+    Stats.init();
+    Expiry.init();
+    if (Config.auditEnabled.get()) AuditLog.start(getConfig().parent());
+    if (Config.metricsEnabled.get()) 
+      MetricsServer.start(Config.metricsAddress.get(), Config.metricsPort.get());
+    
+    // Resume the sweep of the player database, if interrupted by a restart
+    if (Config.sweepActive.get()) Sweep.start();
+    
+    // Once compiled, run synthetic connections through the listener, so the JIT compiles it before the first flood
+    compiled.whenComplete((v, error) -> arc.Core.app.post(() -> {
+      if (error != null) {
+        logger.err("Unable to compile lists, nicknames will be scanned in the lists.", error);
+        return;
+      }
+      logger.info("Lists compiled in @ms.", (System.nanoTime() - compileStart) / 1_000_000);
+      if (Config.warmupConnections.get() > 0) StressTest.warmUp(Config.warmupConnections.get());
+    }));
   }
 
   @Override
@@ -26,13 +26,23 @@
 
 package com.xpdustry.simple_blacklist;
 
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.metrics.Metrics;
+import com.xpdustry.simple_blacklist.metrics.MetricsServer;
+import com.xpdustry.simple_blacklist.replication.Delta;
+import com.xpdustry.simple_blacklist.replication.Replication;
+import com.xpdustry.simple_blacklist.util.Addresses;
+import com.xpdustry.simple_blacklist.util.AsyncLogger;
 import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.LongSet;
 import com.xpdustry.simple_blacklist.util.Strings;
+import com.xpdustry.simple_blacklist.util.TokenBucketMap;
 
 import arc.Events;
 import arc.func.Cons;
-import arc.struct.ObjectIntMap;
 import arc.struct.Seq;
+import arc.util.Log.LogLevel;
 
 import mindustry.net.Packets.KickReason;
 
@@ -43,134 +53,472 @@ import static mindustry.Vars.netServer;
 
 public class Manager {
   private static Logger logger = new Logger();
+  /** Kicks are logged asynchronously, and aggregated by matching entry, to handle floods */
+  private static final AsyncLogger kickLogger = new AsyncLogger();
+  private static final ListMatcher matcher = new ListMatcher();
+  private static final TokenBucketMap throttle = new TokenBucketMap();
+  /** Used instead of the throttle while {@link #simulating}, so synthetic addresses don't fill the live one */
+  private static final TokenBucketMap simulatedThrottle = new TokenBucketMap();
+  /** UUIDs and IPs banned by the plugin, to quickly reject repeated attempts. */
+  private static final LongSet bannedUUIDs = new LongSet(), bannedIPs = new LongSet();
+  /** UUIDs of trusted players, never checked */
+  private static final LongSet exempted = new LongSet();
+  /** Listener checking connecting clients, kept to be driven by the {@link StressTest} */
+  static Cons<ConnectPacketEvent> connectListener;
+  /** 
+   * Set on the main thread while the {@link StressTest} drives synthetic connections. <br>
+   * Only the checks are run, counters, logs, bans and events are skipped, 
+   * and the throttle uses a separate table, never reporting a client as throttled.
+   */
+  static boolean simulating;
   
   public static void registerListeners() {
     // Name blacklist listener
-    Cons<ConnectPacketEvent> listener = e -> {
+    Cons<ConnectPacketEvent> listener = connectListener = e -> {
+      long start = System.nanoTime();
       e.connection.uuid = e.packet.uuid; // For console visual 
 
+      // Trusted players are never checked
+      if (isExempted(e.packet.uuid)) {
+        record(e, start, ConnectLog.Verdict.exempted, e.packet.name, null);
+        return;
+      }
+
+      // Reject clients connecting too often, before any other verification
+      boolean throttled = isThrottled(e.connection.address);
+      long stage = System.nanoTime();
+      stage(Metrics.Stage.throttle, stage - start);
+      if (throttled) {
+        if (!simulating) Stats.throttled.increment();
+        e.connection.kick(KickReason.recentKick, 0);
+        record(e, start, ConnectLog.Verdict.throttled, e.packet.name, null);
+        return;
+      }
+        
+      // Reject clients that was already banned by the plugin
+      boolean banned = isBannedByPlugin(e.packet.uuid, e.connection.address);
+      stage(Metrics.Stage.cache, System.nanoTime() - stage);
+      if (!simulating) (banned ? Metrics.cacheHits : Metrics.cacheMisses).increment();
+      if (banned) {
+        if (!simulating) Stats.alreadyBanned.increment();
+        e.connection.kick(KickReason.banned, 0);
+        record(e, start, ConnectLog.Verdict.banned, e.packet.name, null);
+        return;
+      }
+        
       // Handle case of multiple connection of client
       if (e.connection.hasBegunConnecting) {
         e.connection.kick(KickReason.idInUse, 0);
+        record(e, start, ConnectLog.Verdict.invalid, e.packet.name, null);
         return;
           
       // Check client validity
       } else if (e.packet.uuid == null || e.packet.usid == null) {
         e.connection.kick(KickReason.idInUse, 0);
+        record(e, start, ConnectLog.Verdict.invalid, e.packet.name, null);
         return;
         
       // Check if the nickname is valid
       } else if (e.packet.name == null || 
                  (e.packet.name = netServer.fixName(e.packet.name)).trim().length() <= 0) {
         e.connection.kick(KickReason.nameEmpty, 0);
+        record(e, start, ConnectLog.Verdict.invalid, e.packet.name, null);
         return;
       }
       
-      Events.fire(new CheckingNicknameEvent(e.packet.name, e.packet.uuid, e.connection, e.packet));
+      stage = System.nanoTime();
+      String normalised = Strings.normalise(e.packet.name);
+      stage(Metrics.Stage.normalise, System.nanoTime() - stage);
+      if (!simulating) {
+        Stats.checked.increment();
+        if (hasListeners(CheckingNicknameEvent.class))
+          Events.fire(new CheckingNicknameEvent(e.packet.name, normalised, e.packet.uuid, e.connection, e.packet));
+      }
       
       // Ignore if it's an admin and the 'ignore-admins' option is enabled
       mindustry.net.Administration.PlayerInfo pInfo = netServer.admins.getInfoOptional(e.packet.uuid);
       if (Config.ignoreAdmins.get() && pInfo != null && 
-          pInfo.admin && e.packet.usid.equals(pInfo.adminUsid)) 
+          pInfo.admin && e.packet.usid.equals(pInfo.adminUsid)) {
+        record(e, start, ConnectLog.Verdict.ignored, normalised, null);
         return;
+      }
 
       // Check if the nickname is blacklisted
-      if (!isValidName(e.packet.name)) {
-        if (Config.mode.get() == Config.WorkingMode.banuuid) {
-          /* The player UUID will be banned.
-           * So we need to manually create an account
-           * and filling it with as much informations as possible, if not already.
-           * 
-           * This avoids to create empty accounts BUT not filling the server settings.
-           */
-          if (pInfo == null) {
-            netServer.admins.updatePlayerJoined(e.packet.uuid, e.connection.address, e.packet.name);
-            pInfo = netServer.admins.getInfo(e.packet.uuid);
-            pInfo.adminUsid = e.packet.usid;
-            // the client never joined the server, this value can be used as a filter, to know all invalid accounts
-            pInfo.timesJoined = 0; 
-          }
-          
-          netServer.admins.banPlayerID(e.packet.uuid);
+      stage = System.nanoTime();
+      Object found = findEntry(normalised, Config.namesEnabled.get(), Config.nameCaseSensitive.get(), 
+                               Config.regexEnabled.get());
+      String entry = countEntry(found);
+      stage(Metrics.Stage.match, System.nanoTime() - stage);
+      if (entry != null && simulating) e.connection.kick(KickReason.kick, 0);
+      else if (entry != null) {
+        Config.WorkingMode mode = modeOf(found);
+        String message = messageOf(found);
+        Stats.blacklisted.increment();
+        Metrics.actions[mode.ordinal()].increment();
+        // Bans are applied later, in batch, but the client is kicked now
+        if (mode == Config.WorkingMode.banuuid) {
+          BanQueue.banUUID(e.packet.uuid, e.connection.address, e.packet.name, e.packet.usid);
+          bannedUUIDs.add(Addresses.uuid(e.packet.uuid));
           
-        } else if (Config.mode.get() == Config.WorkingMode.banip)
-          netServer.admins.banPlayerIP(e.connection.address);
+        } else if (mode == Config.WorkingMode.banip) {
+          BanQueue.banIP(e.connection.address);
+          bannedIPs.add(Addresses.key(e.connection.address, false));
+        }
 
-        logger.info("Kicking client '@' [@] for a blacklisted nickname.", e.connection.address, e.packet.uuid);
-        if (Config.message.get().isEmpty()) 
-          e.connection.kick(Config.mode.get() == Config.WorkingMode.kick ? KickReason.kick : KickReason.banned, 
+        kickLogger.aggregate(entry, LogLevel.info, "Kicking client '@' [@] for a blacklisted nickname.", 
+                             e.connection.address, e.packet.uuid);
+        AuditLog.add("connect", e.connection.address, e.packet.uuid, e.packet.name, normalised, entry, mode);
+        if (message.isEmpty()) 
+          e.connection.kick(mode == Config.WorkingMode.kick ? KickReason.kick : KickReason.banned, 
                             pInfo != null ? 30*1000 : 0);
-        else e.connection.kick(Config.message.get(), pInfo != null ? 30*1000 : 0);
-        Events.fire(new BlacklistedNicknameEvent(e.packet.name, e.packet.uuid, e.connection, e.packet));
-      }
+        else e.connection.kick(message, pInfo != null ? 30*1000 : 0);
+        if (hasListeners(BlacklistedNicknameEvent.class))
+          Events.fire(new BlacklistedNicknameEvent(e.packet.name, normalised, e.packet.uuid, e.connection, e.packet));
+        record(e, start, ConnectLog.Verdict.blacklisted, normalised, entry);
+        
+      } else record(e, start, ConnectLog.Verdict.valid, normalised, null);
     };
 
     
     // Try to move listeners at top of lists
-    try {
-      arc.struct.ObjectMap<Object, Seq<Cons<?>>> events = arc.util.Reflect.get(Events.class, "events");
-      
-      events.get(ConnectPacketEvent.class, () -> new Seq<>(Cons.class)).insert(0, listener);
-
-    } catch (RuntimeException err) {
+    arc.struct.ObjectMap<Object, Seq<Cons<?>>> events = getListeners();
+    if (events != null) events.get(ConnectPacketEvent.class, () -> new Seq<>(Cons.class)).insert(0, listener);
+    else {
       logger.warn("Unable to get access of Events.class, because of a security manager!");
       logger.warn("Falling back to a normal event...");
 
       Events.on(ConnectPacketEvent.class, listener);
     }
     
+    // Test the most hit entries first. Sorted in background, and swapped in the main thread to not change 
+    // the order during a check
+    arc.util.Timer.schedule(() -> { matcher.reorderAsync(); Groups.reorder(); }, 
+                            ListMatcher.reorderInterval, ListMatcher.reorderInterval);
+    
+    // Forget clients unbanned by an admin
+    Events.on(PlayerUnbanEvent.class, e -> { if (e.uuid != null) bannedUUIDs.remove(Addresses.uuid(e.uuid)); });
+    Events.on(PlayerIpUnbanEvent.class, e -> { if (e.ip != null) bannedIPs.remove(Addresses.key(e.ip, false)); });
+    
     // Add a listener when exiting the server
     arc.Core.app.addListener(new arc.ApplicationListener() {
-      public void dispose() { Config.save(); }
+      public void dispose() { 
+        BanQueue.flush();
+        Replication.stop();
+        ConfigWatcher.stop();
+        MetricsServer.stop();
+        kickLogger.flush();
+        AuditLog.stop();
+        Config.save(); 
+      }
     });  
   }
 
+  /** Records the connection attempt in the {@link ConnectLog} */
+  private static void record(ConnectPacketEvent e, long start, ConnectLog.Verdict verdict, String name, String entry) {
+    if (simulating) return;
+    long latency = System.nanoTime() - start;
+    Metrics.connects[verdict.ordinal()].increment();
+    Metrics.stage(Metrics.Stage.total, latency);
+    ConnectLog.add(arc.util.Time.millis(), e.connection.address, e.packet.uuid, name, verdict, entry, latency);
+  }
+  
+  private static void stage(Metrics.Stage stage, long nanos) {
+    if (!simulating) Metrics.stage(stage, nanos);
+  }
+  
+  /** 
+   * Takes a token in the bucket of the {@code address}, or of its subnet. 
+   * @return {@code true} if the throttle is enabled and the address connected too often.
+   */
+  public static boolean isThrottled(String address) {
+    if (!Config.throttleEnabled.get() || address == null) return false;
+    boolean acquired = (simulating ? simulatedThrottle : throttle).tryAcquire(
+        Addresses.key(address, Config.throttleSubnet.get()), arc.util.Time.millis(), 
+        Config.throttleBurst.get(), Config.throttleRate.get() / 60000f);
+    // Synthetic clients share a few subnets, so they would be throttled instead of checked
+    return !acquired && !simulating;
+  }
+  
+  /** Forgets addresses of synthetic clients. Must be called when the {@link StressTest} ends. */
+  static void resetSimulatedThrottle() {
+    simulatedThrottle.clear();
+  }
+  
+  /** @return whether the {@code uuid} or the {@code address} was banned by the plugin. */
+  public static boolean isBannedByPlugin(String uuid, String address) {
+    return (uuid != null && !bannedUUIDs.isEmpty() && bannedUUIDs.contains(Addresses.uuid(uuid))) ||
+           (address != null && !bannedIPs.isEmpty() && bannedIPs.contains(Addresses.key(address, false)));
+  }
+  
+  /** Forget all throttled addresses. Must be called when the throttle settings are changed. */
+  public static void resetThrottle() {
+    throttle.clear();
+  }
+
   /** 
    * @return {@code true} if the {@code name} is valid. If it's not in the name list and doesn't match with any regex.
    * @apiNote this will returns {@code true} if lists are both disabled.
    */
   public static boolean isValidName(String name) {
-    name = Strings.normalise(name);
-    
-    if (Config.namesEnabled.get()) {
-      String name0 = Config.nameCaseSensitive.get() ? name : name.toLowerCase();
-      for (ObjectIntMap.Entry<String> e : Config.namesList.get()) {
-        if (Config.nameCaseSensitive.get() ? name.contains(e.key) : name0.contains(e.key.toLowerCase())) {
-          int old = Config.namesList.getForChange().increment(e.key);
-          arc.Events.fire(new NicknameListUpdatedEvent(e.key, old+1));
-          return false;
-        }
-      }
+    return isValidNormalisedName(Strings.normalise(name));
+  }
+  
+  /** Same as {@link #isValidName(String)} but the {@code name} must be already normalised. */
+  public static boolean isValidNormalisedName(String name) {
+    return matchEntry(name) == null;
+  }
+  
+  /** 
+   * Checks the already normalised {@code name} and counts the use of the matching entry.
+   * @return the matching entry, the nickname or the regex between slashes, or {@code null} if the name is valid.
+   */
+  public static String matchEntry(String name) {
+    return countEntry(findEntry(name, Config.namesEnabled.get(), Config.nameCaseSensitive.get(), 
+                                Config.regexEnabled.get()));
+  }
+  
+  /** 
+   * Checks the already normalised {@code name} without counting anything, so it can be called from any thread. <br>
+   * Enabled {@link Groups} are checked after the main lists.
+   * @return the matching nickname, {@link Pattern} or {@link Groups.Hit}, or {@code null} if the name is valid.
+   */
+  static Object findEntry(String name, boolean names, boolean caseSensitive, boolean regex) {
+    if (names) {
+      String found = matcher.matchName(name, caseSensitive);
+      if (found != null) return found;
     }
-    
-    if (Config.regexEnabled.get()) {
-      for (ObjectIntMap.Entry<java.util.regex.Pattern> e : Config.regexList.get()) {
-        if (e.key.matcher(name).matches()) {
-          int old = Config.regexList.getForChange().increment(e.key);
-          arc.Events.fire(new RegexListUpdatedEvent(e.key, old+1));
-          return false;
-        }
-      }
+    if (regex) {
+      Pattern found = matcher.matchRegex(name);
+      if (found != null) return found;
+    }
+    return Groups.find(name, caseSensitive);
+  }
+  
+  /** @return the working mode to apply for an entry returned by {@link #findEntry(String, boolean, boolean, boolean)} */
+  static Config.WorkingMode modeOf(Object found) {
+    return found instanceof Groups.Hit ? ((Groups.Hit)found).group.mode() : Config.mode.get();
+  }
+  
+  /** @return the kick message for an entry returned by {@link #findEntry(String, boolean, boolean, boolean)} */
+  static String messageOf(Object found) {
+    return found instanceof Groups.Hit ? ((Groups.Hit)found).group.message() : Config.message.get();
+  }
+  
+  /** 
+   * Counts the use of an entry returned by {@link #findEntry(String, boolean, boolean, boolean)}.
+   * @return the entry, the nickname or the regex between slashes, prefixed by the group name if any, 
+   *         or {@code null} if the entry was removed.
+   */
+  static String countEntry(Object found) {
+    if (found instanceof String) {
+      String name = (String) found;
+      if (!Config.names().containsKey(name)) return null;
+      if (simulating) return name;
+      int old = Config.incrementName(name);
+      Counters.hitName(name);
+      Stats.nameHits.increment();
+      Metrics.nameHits.increment();
+      if (hasListeners(NicknameListUpdatedEvent.class)) Events.fire(new NicknameListUpdatedEvent(name, old+1));
+      return name;
+      
+    } else if (found instanceof Pattern) {
+      Pattern pattern = (Pattern) found;
+      if (!Config.regexList.get().containsKey(pattern)) return null;
+      if (simulating) return '/' + pattern.pattern() + '/';
+      int old = Config.regexList.getForChange().increment(pattern);
+      Counters.hitRegex(pattern);
+      Stats.regexHits.increment();
+      Metrics.regexHits.increment();
+      if (hasListeners(RegexListUpdatedEvent.class)) Events.fire(new RegexListUpdatedEvent(pattern, old+1));
+      return '/' + pattern.pattern() + '/';
+      
+    } else if (found instanceof Groups.Hit) {
+      Groups.Hit hit = (Groups.Hit) found;
+      if (simulating) return hit.group.name + ':' + hit.entry;
+      return Groups.count(hit);
     }
     
+    return null;
+  }
+  
+  /** @return whether the {@code uuid} is in the exemption list */
+  public static boolean isExempted(String uuid) {
+    return uuid != null && !exempted.isEmpty() && exempted.contains(Addresses.uuid(uuid));
+  }
+  
+  /** Rebuilds the set of exempted UUIDs from the config. Must be called after loading the config. */
+  public static void rebuildExempted() {
+    exempted.clear();
+    Config.exemptUUIDs.get().each(u -> exempted.add(Addresses.uuid(u)));
+  }
+  
+  /** @return {@code false} if the {@code uuid} is already exempted. */
+  public static boolean addExempted(String uuid) {
+    if (Config.exemptUUIDs.get().contains(uuid)) return false;
+    Config.exemptUUIDs.getForChange().add(uuid);
+    exempted.add(Addresses.uuid(uuid));
     return true;
   }
+  
+  /** @return {@code false} if the {@code uuid} is not exempted. */
+  public static boolean removeExempted(String uuid) {
+    if (!Config.exemptUUIDs.getForChange().remove(uuid)) return false;
+    exempted.remove(Addresses.uuid(uuid));
+    return true;
+  }
+  
+  /** 
+   * Rebuilds the compiled matcher from lists, in background. Must be called after loading the config. 
+   * @return completed when the matcher is compiled, nicknames are scanned in the list until then
+   */
+  public static java.util.concurrent.CompletableFuture<Void> rebuildMatcher() {
+    return matcher.rebuildAsync(Config.names(), Config.regexList.get(), Config.compactNames.get());
+  }
+  
+  public static ListMatcher getMatcher() {
+    return matcher;
+  }
+  
+  /** @return {@code false} if the {@code name} is already in the list. */
+  public static boolean addName(String name) {
+    if (Config.names().containsKey(name)) return false;
+    Config.putName(name, 0);
+    Config.unsavedName(name);
+    matcher.addName(name);
+    Replication.publish(Delta.Operation.add, Delta.Target.names, name);
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code name} is not in the list. */
+  public static boolean removeName(String name) {
+    if (!Config.names().containsKey(name)) return false;
+    Config.removeName(name);
+    Config.unsavedName(name);
+    matcher.removeName(name);
+    Expiry.forgetName(name);
+    Replication.publish(Delta.Operation.remove, Delta.Target.names, name);
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code pattern} is already in the list. */
+  public static boolean addRegex(Pattern pattern) {
+    if (findRegex(pattern.pattern()) != null) return false;
+    Config.regexList.getForChange().put(pattern, 0);
+    Config.unsavedRegex(pattern.pattern());
+    matcher.addRegex(pattern);
+    Replication.publish(Delta.Operation.add, Delta.Target.regex, pattern.pattern());
+    return true;
+  }
+  
+  /** @return {@code false} if the {@code pattern} is not in the list. */
+  public static boolean removeRegex(String pattern) {
+    Pattern found = findRegex(pattern);
+    if (found == null) return false;
+    Config.regexList.getForChange().remove(found);
+    Config.unsavedRegex(pattern);
+    matcher.removeRegex(pattern);
+    Expiry.forgetRegex(pattern);
+    Replication.publish(Delta.Operation.remove, Delta.Target.regex, pattern);
+    return true;
+  }
+  
+  /** Removes all entries of the nickname list. */
+  public static void clearNames() {
+    Config.clearNames();
+    Config.unsavedClear(true);
+    rebuildMatcher();
+    Expiry.clearNames();
+    Replication.publish(Delta.Operation.clear, Delta.Target.names, "");
+  }
+  
+  /** Removes all entries of the regex list. */
+  public static void clearRegex() {
+    Config.regexList.getForChange().clear();
+    Config.unsavedClear(false);
+    rebuildMatcher();
+    Expiry.clearRegex();
+    Replication.publish(Delta.Operation.clear, Delta.Target.regex, "");
+  }
+  
+  /** @return the pattern of the regex list with the same source, or {@code null} if not found. */
+  public static Pattern findRegex(String pattern) {
+    for (Pattern p : Config.regexList.get().keys()) {
+      if (p.pattern().equals(pattern)) return p;
+    }
+    return null;
+  }
 
+  /** 
+   * Checks the nickname of online players, in background. 
+   * Can be called from any thread, kicks will be applied on the main thread.
+   * @see Rescan
+   */
   public static void checkOnlinePlayers() {
-    mindustry.gen.Groups.player.each(p -> {
-      // Ignore admins if enabled
-      if (Config.ignoreAdmins.get() && p.admin) return;
-
-      Events.fire(new CheckingNicknameEvent(p.name, p.uuid(), p.con, null));
-      if (!isValidName(p.name)) {
-        logger.info("Kicking player '@' [@] for a blacklisted nickname.", Strings.normalise(p.name), p.uuid());
-        if (Config.mode.get() == Config.WorkingMode.banip) netServer.admins.banPlayerIP(p.con.address);
-        else if (Config.mode.get() == Config.WorkingMode.banuuid) netServer.admins.banPlayerID(p.uuid());
-        if (Config.message.get().isEmpty()) 
-             p.kick(Config.mode.get() == Config.WorkingMode.kick ? KickReason.kick : KickReason.banned);
-        else p.kick(Config.message.get());
-        Events.fire(new BlacklistedNicknameEvent(p.name, p.uuid(), p.con, null));
-      }      
-    });
+    Rescan.start();
+  }
+  
+  /** 
+   * Bans, if enabled, and kicks the player for the blacklisted {@code entry}. Must be called on the main thread.
+   * @param found the entry returned by {@link #findEntry(String, boolean, boolean, boolean)}
+   * @param entry the entry returned by {@link #countEntry(Object)}
+   * @param source what triggered the action, for the {@link AuditLog}
+   */
+  static void blacklistPlayer(mindustry.gen.Player p, String normalised, Object found, String entry, String source) {
+    Config.WorkingMode mode = modeOf(found);
+    String message = messageOf(found);
+    Stats.blacklisted.increment();
+    Metrics.actions[mode.ordinal()].increment();
+    kickLogger.aggregate(entry, LogLevel.info, "Kicking player '@' [@] for a blacklisted nickname.", 
+                         normalised, p.uuid());
+    AuditLog.add(source, p.con.address, p.uuid(), p.name, normalised, entry, mode);
+    if (mode == Config.WorkingMode.banip) {
+      BanQueue.banIP(p.con.address);
+      bannedIPs.add(Addresses.key(p.con.address, false));
+    } else if (mode == Config.WorkingMode.banuuid) {
+      BanQueue.banUUID(p.uuid(), p.con.address, null, null);
+      bannedUUIDs.add(Addresses.uuid(p.uuid()));
+    }
+    if (message.isEmpty()) 
+         p.kick(mode == Config.WorkingMode.kick ? KickReason.kick : KickReason.banned);
+    else p.kick(message);
+    if (hasListeners(BlacklistedNicknameEvent.class))
+      Events.fire(new BlacklistedNicknameEvent(p.name, normalised, p.uuid(), p.con, null));
+  }
+  
+  /** 
+   * Applies the working mode to the player of the record, for an entry found by 
+   * {@link #findEntry(String, boolean, boolean, boolean)}. <br>
+   * If online, the player is also kicked, else only bans are applied. Must be called on the main thread.
+   * @return {@code false} if nothing was applied, because the player is offline in kick mode, 
+   *         already banned, or the entry was removed.
+   */
+  static boolean blacklistInfo(mindustry.net.Administration.PlayerInfo info, String normalised, Object found) {
+    mindustry.gen.Player p = mindustry.gen.Groups.player.find(o -> info.id.equals(o.uuid()));
+    Config.WorkingMode mode = modeOf(found);
+    boolean banUUID = mode == Config.WorkingMode.banuuid && !info.banned,
+            banIP = mode == Config.WorkingMode.banip && info.lastIP != null && 
+                    !info.lastIP.isEmpty() && !netServer.admins.isIPBanned(info.lastIP);
+    if (p == null && !banUUID && !banIP) return false;
+    
+    String entry = countEntry(found);
+    if (entry == null) return false;
+    if (p != null) {
+      blacklistPlayer(p, normalised, found, entry, "sweep");
+      return true;
+    }
+    
+    Stats.blacklisted.increment();
+    Metrics.actions[mode.ordinal()].increment();
+    kickLogger.aggregate(entry, LogLevel.info, "Banning offline player '@' [@] for a blacklisted nickname.", 
+                         normalised, info.id);
+    AuditLog.add("sweep", info.lastIP, info.id, info.lastName, normalised, entry, mode);
+    if (banUUID) {
+      BanQueue.banUUID(info.id, info.lastIP, info.lastName, null);
+      bannedUUIDs.add(Addresses.uuid(info.id));
+    } else {
+      BanQueue.banIP(info.lastIP);
+      bannedIPs.add(Addresses.key(info.lastIP, false));
+    }
+    return true;
   }
 }
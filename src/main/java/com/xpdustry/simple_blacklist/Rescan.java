@@ -0,0 +1,135 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.Strings;
+
+import arc.Core;
+import arc.Events;
+import arc.struct.Seq;
+
+import mindustry.gen.Groups;
+import mindustry.gen.Player;
+
+import static com.xpdustry.simple_blacklist.Events.CheckingNicknameEvent;
+import static com.xpdustry.simple_blacklist.Events.hasListeners;
+
+
+/** 
+ * Rescan of online players' nicknames. <br>
+ * Names are collected on the main thread, evaluated in parallel on the common fork-join pool, 
+ * then results are applied back on the main thread, with at most {@link #kicksPerTick} kicks per tick.
+ */
+public class Rescan {
+  /** Maximum number of players kicked per tick */
+  public static final int kicksPerTick = 5;
+  
+  private static final Logger logger = new Logger();
+  /** Results waiting to be applied. Only accessed on the main thread. */
+  private static final ArrayDeque<Result> pending = new ArrayDeque<>();
+  private static boolean draining;
+  
+  /** Starts a rescan. Can be called from any thread. */
+  public static void start() {
+    Core.app.post(Rescan::snapshot);
+  }
+  
+  /** Collects online players and sends them to the pool. Must be called on the main thread. */
+  private static void snapshot() {
+    boolean ignoreAdmins = Config.ignoreAdmins.get(), names = Config.namesEnabled.get(), 
+            caseSensitive = Config.nameCaseSensitive.get(), regex = Config.regexEnabled.get();
+    if (!names && !regex && !com.xpdustry.simple_blacklist.Groups.anyEnabled()) return;
+    
+    Seq<Result> snapshot = new Seq<>(Result.class);
+    Groups.player.each(p -> { 
+      if ((!ignoreAdmins || !p.admin) && !Manager.isExempted(p.uuid())) snapshot.add(new Result(p, p.name)); 
+    });
+    if (snapshot.isEmpty()) return;
+    Result[] results = snapshot.toArray();
+    
+    ForkJoinPool.commonPool().execute(() -> {
+      try {
+        java.util.Arrays.stream(results).parallel().forEach(r -> {
+          r.normalised = Strings.normalise(r.name);
+          r.found = Manager.findEntry(r.normalised, names, caseSensitive, regex);
+        });
+      } catch (Throwable e) {
+        logger.err("Failed to check online players", e);
+        return;
+      }
+      
+      Core.app.post(() -> {
+        for (Result r : results) pending.addLast(r);
+        if (!draining) drain();
+      });
+    });
+  }
+  
+  /** Applies pending results until the kick limit, then continues on the next tick. */
+  private static void drain() {
+    int kicks = 0;
+    while (kicks < kicksPerTick && !pending.isEmpty()) {
+      Result r = pending.removeFirst();
+      // Player left, was already kicked, or renamed since the snapshot
+      if (!r.player.isAdded() || r.player.con == null || r.player.con.kicked || 
+          !r.name.equals(r.player.name)) continue;
+      
+      Stats.checked.increment();
+      if (hasListeners(CheckingNicknameEvent.class))
+        Events.fire(new CheckingNicknameEvent(r.name, r.normalised, r.player.uuid(), r.player.con, null));
+      if (r.found == null) continue;
+      
+      // Null if the entry was removed in the meantime
+      String entry = Manager.countEntry(r.found);
+      if (entry == null) continue;
+      Manager.blacklistPlayer(r.player, r.normalised, r.found, entry, "rescan");
+      kicks++;
+    }
+    
+    draining = !pending.isEmpty();
+    if (draining) Core.app.post(Rescan::drain);
+  }
+  
+  
+  private static class Result {
+    final Player player;
+    final String name;
+    String normalised;
+    /** Nickname or pattern found by {@link Manager#findEntry(String, boolean, boolean, boolean)} */
+    Object found;
+    
+    Result(Player player, String name) {
+      this.player = player;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.xpdustry.simple_blacklist.Events.BlacklistStatsEvent;
+
+
+/** Counters of the blacklist activity, periodically sent with a {@link BlacklistStatsEvent}. */
+public class Stats {
+  /** Interval, in seconds, between two {@link BlacklistStatsEvent} */
+  public static final float interval = 10f;
+  
+  public static final LongAdder 
+    checked = new LongAdder(),
+    blacklisted = new LongAdder(),
+    nameHits = new LongAdder(),
+    regexHits = new LongAdder(),
+    throttled = new LongAdder(),
+    alreadyBanned = new LongAdder();
+  
+  private static long lastFire = arc.util.Time.millis();
+  
+  public static void init() {
+    arc.util.Timer.schedule(() -> arc.Core.app.post(Stats::fire), interval, interval);
+  }
+  
+  /** Fires a {@link BlacklistStatsEvent} with counters since the last one, if there is a listener. */
+  public static void fire() {
+    if (!Events.hasListeners(BlacklistStatsEvent.class)) return;
+    
+    long now = arc.util.Time.millis(), duration = now - lastFire;
+    BlacklistStatsEvent event = new BlacklistStatsEvent(duration, 
+        checked.sumThenReset(), blacklisted.sumThenReset(), nameHits.sumThenReset(), regexHits.sumThenReset(), 
+        throttled.sumThenReset(), alreadyBanned.sumThenReset());
+    lastFire = now;
+    
+    if (event.checked != 0 || event.throttled != 0 || event.alreadyBanned != 0) arc.Events.fire(event);
+  }
+}
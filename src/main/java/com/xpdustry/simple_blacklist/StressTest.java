@@ -0,0 +1,335 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+
+import arc.Core;
+
+import mindustry.net.NetConnection;
+import mindustry.net.Packets.ConnectPacket;
+import mindustry.net.Packets.KickReason;
+
+import static mindustry.game.EventType.ConnectPacketEvent;
+
+
+/** 
+ * Connection storm against the installed connect listener, to measure its throughput, latency and allocations. <br>
+ * Synthetic clients are generated by producer threads, then driven through the listener on the main thread, 
+ * like real connections, within a time budget per tick so the server stays responsive. <br>
+ * Connections are stubbed, so kicks only record their reason, 
+ * and the listener is {@link Manager#simulating simulating}, so nothing is counted, logged, banned or throttled.
+ */
+public class StressTest {
+  /** Number of clients generated at once by a producer */
+  public static final int batchSize = 1024;
+  /** Time, in nanoseconds, spent driving clients per tick */
+  public static final long tickBudget = 5_000_000L;
+  /** Maximum number of latencies kept for percentiles, sampled when exceeded */
+  public static final int maxSamples = 1 << 20;
+  
+  private static final Logger logger = new Logger();
+  private static volatile Run current;
+  
+  public static boolean running() {
+    return current != null;
+  }
+  
+  /** 
+   * Starts a storm of {@code count} connections, {@code botRatio} of them using a blacklisted nickname. 
+   * Must be called on the main thread.
+   * @return {@code false} if a test is already running, or the listener is not registered.
+   */
+  public static boolean start(int count, float botRatio, int threads, Logger output) {
+    if (current != null || Manager.connectListener == null) return false;
+    String[] names = Manager.getMatcher().names();
+    if (botRatio > 0 && names.length == 0) 
+      output.warn("The nickname list is empty, bots will use random names.");
+    
+    launch(current = new Run(count, botRatio, names, output, false), threads);
+    return true;
+  }
+  
+  /** 
+   * Drives {@code count} synthetic connections through the listener, half of them bots, and only logs a summary. 
+   * Used at startup, so the JIT compiles the verification before the first flood. Must be called on the main thread.
+   * @return {@code false} if a test is already running, or the listener is not registered.
+   */
+  public static boolean warmUp(int count) {
+    if (current != null || Manager.connectListener == null) return false;
+    launch(current = new Run(count, 0.5f, Manager.getMatcher().names(), logger, true), 1);
+    return true;
+  }
+  
+  private static void launch(Run run, int threads) {
+    for (int i=0; i<threads; i++) {
+      Thread thread = new Thread(() -> produce(run), "SimpleBlacklist-Stress-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+    Core.app.post(() -> drive(run));
+  }
+  
+  /** Stops the running test, and reports what was already driven */
+  public static void cancel() {
+    Run run = current;
+    if (run != null) run.cancelled = true;
+  }
+  
+  /** Generates batches of clients until the count is reached. Runs in a producer thread. */
+  private static void produce(Run run) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int start;
+    while (!run.cancelled && (start = run.claimed.getAndAdd(batchSize)) < run.count) {
+      Client[] batch = new Client[Math.min(batchSize, run.count - start)];
+      for (int i=0; i<batch.length; i++) batch[i] = generate(run, random);
+      
+      try { 
+        while (!run.queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+          if (run.cancelled) return;
+        }
+      } catch (InterruptedException e) { return; }
+    }
+  }
+  
+  private static Client generate(Run run, ThreadLocalRandom random) {
+    boolean bot = random.nextFloat() < run.botRatio;
+    ConnectPacket packet = new ConnectPacket();
+    packet.name = bot && run.names.length > 0 ? botName(run.names, random) : legitName(random);
+    packet.uuid = randomId(random);
+    packet.usid = randomId(random);
+    packet.locale = "en";
+    // From the benchmarking range 198.18.0.0/15, to not throttle real addresses
+    String address = "198." + (18 + random.nextInt(2)) + '.' + random.nextInt(256) + '.' + random.nextInt(256);
+    return new Client(new StubConnection(address), packet, bot);
+  }
+  
+  private static String botName(String[] names, ThreadLocalRandom random) {
+    String name = names[random.nextInt(names.length)];
+    switch (random.nextInt(3)) {
+      case 0: return name;
+      case 1: return "[#" + Integer.toHexString(random.nextInt(0x1000000)) + ']' + name + random.nextInt(1000);
+      default: return "xX" + name + "Xx";
+    }
+  }
+  
+  private static final String[] syllables = {"ka", "ri", "to", "ne", "mu", "sa", "lo", "vi", "de", "zu", "pa", "ch"};
+  
+  private static String legitName(ThreadLocalRandom random) {
+    StringBuilder builder = new StringBuilder();
+    if (random.nextInt(4) == 0) builder.append("[#").append(Integer.toHexString(random.nextInt(0x1000000))).append(']');
+    for (int i=2+random.nextInt(3); i>0; i--) builder.append(syllables[random.nextInt(syllables.length)]);
+    if (random.nextBoolean()) builder.append(random.nextInt(100));
+    return builder.toString();
+  }
+  
+  /** @return an id in the form received by the server, 8 random bytes followed by their CRC */
+  private static String randomId(ThreadLocalRandom random) {
+    byte[] bytes = new byte[16];
+    random.nextBytes(bytes);
+    java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+    crc.update(bytes, 0, 8);
+    java.nio.ByteBuffer.wrap(bytes).putLong(8, crc.getValue());
+    return java.util.Base64.getEncoder().encodeToString(bytes);
+  }
+  
+  /** Drives clients through the listener until the tick budget is spent. Must be called on the main thread. */
+  private static void drive(Run run) {
+    long tickStart = System.nanoTime(), deadline = tickStart + tickBudget, allocated = allocatedBytes();
+    Client[] batch;
+    
+    Manager.simulating = true;
+    try {
+      while (!run.cancelled && System.nanoTime() < deadline && (batch = run.queue.poll()) != null) {
+        for (Client client : batch) {
+          long start = System.nanoTime();
+          Manager.connectListener.get(client.event);
+          run.record(client, System.nanoTime() - start);
+        }
+      }
+    } catch (Throwable e) {
+      logger.err("Stress test failed", e);
+      run.cancelled = true;
+    } finally { Manager.simulating = false; }
+    
+    run.activeNanos += System.nanoTime() - tickStart;
+    if (allocated >= 0) run.allocatedBytes += allocatedBytes() - allocated;
+    if (!run.cancelled && run.driven < run.count) Core.app.post(() -> drive(run));
+    else {
+      run.cancelled = true;
+      current = null;
+      Manager.resetSimulatedThrottle();
+      report(run);
+    }
+  }
+  
+  /** @return the bytes allocated by the current thread, or {@code -1} if not supported by the JVM */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+    if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) return -1;
+    return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+  
+  private static void report(Run run) {
+    Logger out = run.output;
+    if (run.driven == 0) {
+      out.info("Stress test stopped before any connection.");
+      return;
+    }
+    
+    int size = (int)Math.min(run.driven, maxSamples);
+    long[] sorted = java.util.Arrays.copyOf(run.samples, size);
+    java.util.Arrays.sort(sorted);
+    long wall = System.nanoTime() - run.startNanos;
+    if (run.warmUp) {
+      out.info("Warm-up done: @ connection(s) in @ms, p50 @, p99 @.", run.driven, wall / 1000000, 
+               micros(percentile(sorted, 0.5)), micros(percentile(sorted, 0.99)));
+      return;
+    }
+    
+    out.info("Stress test @: @ connection(s) in @ms of listener time, @ms of wall time.", 
+             run.driven < run.count ? "stopped" : "done", run.driven, run.activeNanos / 1000000, wall / 1000000);
+    out.info("Throughput: @ connections/s while driving.", (long)(run.driven * 1e9 / Math.max(run.activeNanos, 1)));
+    out.info("Latency: p50 @, p90 @, p99 @, p99.9 @, max @.", micros(percentile(sorted, 0.5)), 
+             micros(percentile(sorted, 0.9)), micros(percentile(sorted, 0.99)), micros(percentile(sorted, 0.999)), 
+             micros(run.maxLatency));
+    
+    if (run.allocatedBytes > 0)
+      out.info("Allocation: @ bytes/connection, @ MB/s while driving.", run.allocatedBytes / run.driven, 
+               (long)(run.allocatedBytes / 1048576d * 1e9 / Math.max(run.activeNanos, 1)));
+    else out.info("Allocation: not measurable on this JVM.");
+    
+    out.info("Verdicts: @ passed, @ blacklisted, @ throttled, @ already banned, @ invalid.", 
+             run.verdicts[0], run.verdicts[1], run.verdicts[2], run.verdicts[3], run.verdicts[4]);
+    out.info("Bots passed: @, legit players blacklisted: @.", run.missedBots, run.kickedLegit);
+  }
+  
+  private static long percentile(long[] sorted, double p) {
+    return sorted[Math.min(sorted.length - 1, (int)(sorted.length * p))];
+  }
+  
+  private static String micros(long nanos) {
+    return arc.util.Strings.fixed(nanos / 1000f, 1) + "us";
+  }
+  
+  
+  private static class Run {
+    final int count;
+    final float botRatio;
+    final String[] names;
+    final Logger output;
+    /** Startup warm-up, only a summary is reported */
+    final boolean warmUp;
+    final ArrayBlockingQueue<Client[]> queue = new ArrayBlockingQueue<>(8);
+    /** Number of clients already handed to producers */
+    final AtomicInteger claimed = new AtomicInteger();
+    final long startNanos = System.nanoTime();
+    volatile boolean cancelled;
+    
+    // Only accessed on the main thread
+    final long[] samples;
+    /** Passed, blacklisted, throttled, already banned, invalid */
+    final int[] verdicts = new int[5];
+    int driven, missedBots, kickedLegit;
+    long activeNanos, allocatedBytes, maxLatency;
+    
+    Run(int count, float botRatio, String[] names, Logger output, boolean warmUp) {
+      this.count = count;
+      this.botRatio = botRatio;
+      this.names = names;
+      this.output = output;
+      this.warmUp = warmUp;
+      this.samples = new long[Math.min(count, maxSamples)];
+    }
+    
+    void record(Client client, long latency) {
+      // Reservoir sampling, when there is more clients than samples
+      if (driven < samples.length) samples[driven] = latency;
+      else {
+        int index = ThreadLocalRandom.current().nextInt(driven + 1);
+        if (index < samples.length) samples[index] = latency;
+      }
+      driven++;
+      if (latency > maxLatency) maxLatency = latency;
+      
+      KickReason reason = client.connection.reason;
+      int verdict = !client.connection.kicked ? 0 : reason == KickReason.kick ? 1 : 
+                    reason == KickReason.recentKick ? 2 : reason == KickReason.banned ? 3 : 4;
+      verdicts[verdict]++;
+      if (client.bot && verdict == 0) missedBots++;
+      else if (!client.bot && verdict == 1) kickedLegit++;
+    }
+  }
+  
+  
+  private static class Client {
+    final StubConnection connection;
+    final ConnectPacketEvent event;
+    final boolean bot;
+    
+    Client(StubConnection connection, ConnectPacket packet, boolean bot) {
+      this.connection = connection;
+      this.event = new ConnectPacketEvent(connection, packet);
+      this.bot = bot;
+    }
+  }
+  
+  
+  /** Connection sending nothing, kicks only record their reason */
+  private static class StubConnection extends NetConnection {
+    KickReason reason;
+    
+    StubConnection(String address) {
+      super(address);
+    }
+    
+    @Override
+    public void kick(KickReason reason) { kick(reason, 0); }
+    @Override
+    public void kick(KickReason reason, long kickDuration) { 
+      if (kicked) return;
+      this.reason = reason;
+      kicked = true;
+    }
+    @Override
+    public void kick(String reason) { kick(reason, 0); }
+    @Override
+    public void kick(String reason, long kickDuration) { kick(KickReason.kick, kickDuration); }
+    
+    @Override
+    public void send(Object object, boolean reliable) {}
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.Strings;
+
+import arc.Core;
+import arc.struct.ObjectMap;
+import arc.util.Reflect;
+
+import mindustry.net.Administration.PlayerInfo;
+
+import static mindustry.Vars.netServer;
+
+
+/** 
+ * Retroactive sweep of the player database. <br>
+ * Records are checked by batches, in parallel on the common fork-join pool, then the working mode 
+ * is applied on the main thread, with at most {@link #actionsPerTick} actions per tick. <br>
+ * The last checked player ID is kept in the config, so the sweep resumes after a restart.
+ */
+public class Sweep {
+  /** Number of records checked per batch */
+  public static final int batchSize = 256;
+  /** Maximum number of players kicked or banned per tick */
+  public static final int actionsPerTick = 10;
+  
+  private static final Logger logger = new Logger();
+  /** Current job, only modified on the main thread */
+  private static Job job;
+  
+  /** Starts the sweep, or resumes it from the saved cursor. Can be called from any thread. */
+  public static void start() {
+    Core.app.post(Sweep::begin);
+  }
+  
+  /** Cancels the sweep and forgets the cursor. Must be called on the main thread. */
+  public static void cancel() {
+    if (job != null) job.cancelled = true;
+    job = null;
+    Config.sweepActive.set(false);
+    Config.sweepCursor.set("");
+  }
+  
+  public static boolean running() {
+    return job != null;
+  }
+  
+  /** @return the progress, as {@code {checked, total, hits}}, or {@code null} if no sweep is running */
+  public static int[] progress() {
+    Job j = job;
+    return j == null ? null : new int[] {j.position, j.records.length, j.hitCount};
+  }
+  
+  private static void begin() {
+    if (job != null) return;
+    
+    ObjectMap<String, PlayerInfo> infos;
+    try { infos = Reflect.get(netServer.admins, "playerInfo"); } 
+    catch (Exception e) { infos = null; }
+    if (infos == null) {
+      logger.err("Unable to access the player database. Sweep cancelled.");
+      cancel();
+      return;
+    }
+    
+    // Names are copied, because they can be modified while sweeping
+    Record[] records = new Record[infos.size];
+    int i = 0;
+    for (PlayerInfo info : infos.values()) 
+      records[i++] = new Record(info.id, info.names == null ? new String[0] : info.names.toArray(String.class));
+    
+    Job j = new Job(i == records.length ? records : java.util.Arrays.copyOf(records, i));
+    job = j;
+    Config.sweepActive.set(true);
+    String cursor = Config.sweepCursor.get();
+    
+    ForkJoinPool.commonPool().execute(() -> {
+      // Sorted by ID, to resume at the same place
+      java.util.Arrays.sort(j.records, (a, b) -> a.id.compareTo(b.id));
+      int start = 0;
+      if (!cursor.isEmpty()) {
+        while (start < j.records.length && j.records[start].id.compareTo(cursor) <= 0) start++;
+      }
+      
+      int position = start;
+      Core.app.post(() -> {
+        if (j.cancelled) return;
+        j.position = position;
+        if (position == 0) logger.info("Sweeping @ player(s) of the database...", j.records.length);
+        else logger.info("Resuming the sweep at @/@ player(s)...", position, j.records.length);
+        j.next();
+      });
+    });
+  }
+  
+  
+  private static class Job {
+    final Record[] records;
+    final ArrayDeque<Record> hits = new ArrayDeque<>();
+    volatile boolean cancelled;
+    int position, hitCount;
+    
+    Job(Record[] records) {
+      this.records = records;
+    }
+    
+    /** Checks the next batch, or ends the sweep. Must be called on the main thread. */
+    void next() {
+      if (cancelled) return;
+      if (position >= records.length) {
+        logger.info("Sweep done: @ player(s) checked, @ blacklisted.", records.length, hitCount);
+        job = null;
+        Config.sweepActive.set(false);
+        Config.sweepCursor.set("");
+        return;
+      }
+      
+      int start = position, end = Math.min(records.length, start + batchSize);
+      boolean names = Config.namesEnabled.get(), caseSensitive = Config.nameCaseSensitive.get(), 
+              regex = Config.regexEnabled.get();
+      
+      ForkJoinPool.commonPool().execute(() -> {
+        try {
+          java.util.Arrays.stream(records, start, end).parallel().forEach(r -> {
+            for (String name : r.names) {
+              String normalised = Strings.normalise(name);
+              Object found = Manager.findEntry(normalised, names, caseSensitive, regex);
+              if (found != null) {
+                r.normalised = normalised;
+                r.found = found;
+                return;
+              }
+            }
+          });
+        } catch (Throwable e) {
+          Core.app.post(() -> {
+            logger.err("Sweep failed", e);
+            job = null;
+          });
+          return;
+        }
+        
+        Core.app.post(() -> {
+          for (int i=start; i<end; i++) {
+            if (records[i].found != null) hits.addLast(records[i]);
+          }
+          apply(end);
+        });
+      });
+    }
+    
+    /** Applies actions of the current batch, a few per tick, then moves the cursor to {@code end}. */
+    void apply(int end) {
+      if (cancelled) return;
+      boolean ignoreAdmins = Config.ignoreAdmins.get();
+      
+      int actions = 0;
+      while (actions < actionsPerTick && !hits.isEmpty()) {
+        Record r = hits.removeFirst();
+        PlayerInfo info = netServer.admins.getInfoOptional(r.id);
+        if (info == null || (ignoreAdmins && info.admin) || Manager.isExempted(info.id)) continue;
+        if (Manager.blacklistInfo(info, r.normalised, r.found)) {
+          actions++;
+          hitCount++;
+        }
+      }
+      
+      if (!hits.isEmpty()) {
+        Core.app.post(() -> apply(end));
+        return;
+      }
+      
+      position = end;
+      Config.sweepCursor.set(records[end-1].id);
+      next();
+    }
+  }
+  
+  
+  private static class Record {
+    final String id;
+    final String[] names;
+    /** Set by the batch check, for the first blacklisted name */
+    String normalised;
+    Object found;
+    
+    Record(String id, String[] names) {
+      this.id = id;
+      this.names = names;
+    }
+  }
+}
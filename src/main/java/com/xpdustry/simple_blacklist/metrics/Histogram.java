@@ -0,0 +1,83 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/** Lock-free histogram of durations, with fixed buckets, rendered in the Prometheus text format. */
+public class Histogram {
+  /** Default bounds, from 1 microsecond to 1 second, in nanoseconds */
+  public static final long[] defaultBounds = {
+    1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 
+    1_000_000, 5_000_000, 10_000_000, 50_000_000, 100_000_000, 500_000_000, 1_000_000_000
+  };
+  
+  private final long[] bounds;
+  /** Count per bucket, not cumulative, with the last one for values above all bounds */
+  private final LongAdder[] counts;
+  private final LongAdder sum = new LongAdder();
+  
+  public Histogram() {
+    this(defaultBounds);
+  }
+  
+  /** @param bounds upper bounds of buckets, in nanoseconds, in increasing order */
+  public Histogram(long... bounds) {
+    this.bounds = bounds;
+    this.counts = new LongAdder[bounds.length + 1];
+    for (int i=0; i<counts.length; i++) counts[i] = new LongAdder();
+  }
+  
+  public void record(long nanos) {
+    int i = 0;
+    while (i < bounds.length && nanos > bounds[i]) i++;
+    counts[i].increment();
+    sum.add(nanos);
+  }
+  
+  /** 
+   * Writes the buckets, sum and count, in seconds. 
+   * @param labels additional labels, like {@code stage="match"}, or an empty string
+   */
+  public void write(StringBuilder out, String name, String labels) {
+    String prefix = labels.isEmpty() ? "" : labels + ",";
+    long cumulative = 0;
+    
+    for (int i=0; i<bounds.length; i++) {
+      cumulative += counts[i].sum();
+      out.append(name).append("_bucket{").append(prefix).append("le=\"").append(bounds[i] / 1e9).append("\"} ")
+         .append(cumulative).append('\n');
+    }
+    cumulative += counts[bounds.length].sum();
+    out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+    
+    String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+    out.append(name).append("_sum").append(suffix).append(sum.sum() / 1e9).append('\n');
+    out.append(name).append("_count").append(suffix).append(cumulative).append('\n');
+  }
+}
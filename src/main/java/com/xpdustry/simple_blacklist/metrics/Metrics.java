@@ -0,0 +1,140 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.xpdustry.simple_blacklist.Config;
+import com.xpdustry.simple_blacklist.ConnectLog;
+import com.xpdustry.simple_blacklist.Groups;
+import com.xpdustry.simple_blacklist.Manager;
+
+import arc.struct.Seq;
+
+
+/** 
+ * Monotonic counters and histograms of the blacklist activity, rendered in the Prometheus text format. <br>
+ * Unlike {@link com.xpdustry.simple_blacklist.Stats}, counters are never reset. 
+ * All values are lock-free, so rendering never blocks the listener.
+ */
+public class Metrics {
+  public static final String prefix = "simple_blacklist_";
+  
+  /** Connections checked by the listener, per verdict */
+  public static final LongAdder[] connects = adders(ConnectLog.Verdict.values().length);
+  /** Kicks and bans, per working mode */
+  public static final LongAdder[] actions = adders(Config.WorkingMode.values().length);
+  public static final LongAdder nameHits = new LongAdder(), regexHits = new LongAdder();
+  /** Lookups in the set of clients already banned by the plugin */
+  public static final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder();
+  /** Time spent per stage of the listener */
+  public static final Histogram[] stages = new Histogram[Stage.values().length];
+  /** Time spent to save the config file */
+  public static final Histogram saves = new Histogram(100_000, 500_000, 1_000_000, 5_000_000, 10_000_000, 
+                                                      50_000_000, 100_000_000, 500_000_000, 1_000_000_000);
+  
+  static {
+    for (int i=0; i<stages.length; i++) stages[i] = new Histogram();
+  }
+  
+  public static void stage(Stage stage, long nanos) {
+    stages[stage.ordinal()].record(nanos);
+  }
+  
+  public static String render() {
+    StringBuilder out = new StringBuilder(4096);
+    
+    header(out, "connects_total", "counter", "Connections checked by the listener, per verdict.");
+    for (ConnectLog.Verdict v : ConnectLog.Verdict.values()) 
+      sample(out, "connects_total", "verdict=\"" + v.name() + "\"", connects[v.ordinal()].sum());
+    
+    header(out, "actions_total", "counter", "Clients kicked or banned, per working mode.");
+    for (Config.WorkingMode m : Config.WorkingMode.values()) 
+      sample(out, "actions_total", "mode=\"" + m.name() + "\"", actions[m.ordinal()].sum());
+    
+    header(out, "hits_total", "counter", "Blacklisted names, per list.");
+    sample(out, "hits_total", "list=\"names\"", nameHits.sum());
+    sample(out, "hits_total", "list=\"regex\"", regexHits.sum());
+    
+    long hits = cacheHits.sum(), misses = cacheMisses.sum();
+    header(out, "banned_cache_total", "counter", "Lookups of clients already banned by the plugin, per result.");
+    sample(out, "banned_cache_total", "result=\"hit\"", hits);
+    sample(out, "banned_cache_total", "result=\"miss\"", misses);
+    header(out, "banned_cache_ratio", "gauge", "Ratio of clients rejected as already banned by the plugin.");
+    out.append(prefix).append("banned_cache_ratio ").append(hits + misses == 0 ? 0 : (double)hits / (hits + misses))
+       .append('\n');
+    
+    header(out, "entries", "gauge", "Entries in the compiled lists.");
+    sample(out, "entries", "list=\"names\"", Manager.getMatcher().nameCount());
+    sample(out, "entries", "list=\"regex\"", Manager.getMatcher().regexCount());
+    
+    Seq<Groups.Group> groups = Groups.all();
+    header(out, "group_hits_total", "counter", "Blacklisted names, per group.");
+    for (Groups.Group g : groups) sample(out, "group_hits_total", "group=\"" + g.name + "\"", g.hits.sum());
+    header(out, "group_entries", "gauge", "Entries of groups, enabled or not.");
+    for (Groups.Group g : groups) sample(out, "group_entries", "group=\"" + g.name + "\"", g.size());
+    
+    header(out, "stage_duration_seconds", "histogram", "Time spent per stage of the listener.");
+    for (Stage s : Stage.values()) stages[s.ordinal()].write(out, prefix + "stage_duration_seconds", 
+                                                             "stage=\"" + s.name() + "\"");
+    
+    header(out, "save_duration_seconds", "histogram", "Time spent to save the config file.");
+    saves.write(out, prefix + "save_duration_seconds", "");
+    
+    return out.toString();
+  }
+  
+  private static void header(StringBuilder out, String name, String type, String help) {
+    out.append("# HELP ").append(prefix).append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(prefix).append(name).append(' ').append(type).append('\n');
+  }
+  
+  private static void sample(StringBuilder out, String name, String labels, long value) {
+    out.append(prefix).append(name).append('{').append(labels).append("} ").append(value).append('\n');
+  }
+  
+  private static LongAdder[] adders(int count) {
+    LongAdder[] array = new LongAdder[count];
+    for (int i=0; i<count; i++) array[i] = new LongAdder();
+    return array;
+  }
+  
+  
+  /** Stages of the connection listener */
+  public static enum Stage {
+    /** Connection throttle */
+    throttle, 
+    /** Lookup of clients already banned */
+    cache, 
+    /** Name normalisation */
+    normalise, 
+    /** Nickname and regex lists */
+    match, 
+    /** Whole listener */
+    total
+  }
+}
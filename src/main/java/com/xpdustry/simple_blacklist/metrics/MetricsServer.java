@@ -0,0 +1,95 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.xpdustry.simple_blacklist.util.Logger;
+
+
+/** Embedded HTTP server, serving {@link Metrics} on {@code /metrics}, by default on the loopback interface. */
+public class MetricsServer {
+  private static final Logger logger = new Logger();
+  private static HttpServer server;
+  private static java.util.concurrent.ExecutorService executor;
+  
+  /** Starts, or restarts, the server on the {@code host} and {@code port}. */
+  public static synchronized void start(String host, int port) {
+    stop();
+    
+    try {
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(host), port), 0);
+      server.createContext("/metrics", MetricsServer::handle);
+      executor = java.util.concurrent.Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "SimpleBlacklist-Metrics");
+        thread.setDaemon(true);
+        return thread;
+      });
+      server.setExecutor(executor);
+      server.start();
+      logger.info("Metrics available at http://@:@/metrics", host, port);
+      
+    } catch (IOException | RuntimeException e) {
+      logger.err("Unable to start the metrics server", e);
+      stop();
+    }
+  }
+  
+  public static synchronized void stop() {
+    if (server != null) server.stop(0);
+    if (executor != null) executor.shutdownNow();
+    server = null;
+    executor = null;
+  }
+  
+  public static synchronized boolean running() {
+    return server != null;
+  }
+  
+  private static void handle(HttpExchange exchange) throws IOException {
+    try {
+      if (!exchange.getRequestMethod().equals("GET")) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      
+      byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) { out.write(body); }
+      
+    } finally {
+      exchange.close();
+    }
+  }
+}
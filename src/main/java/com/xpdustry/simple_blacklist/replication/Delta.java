@@ -0,0 +1,106 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.replication;
+
+
+/** A versioned modification of a blacklist, sent from the primary server to the replicas. */
+public class Delta {
+  public final long version;
+  public final Operation operation;
+  public final Target target;
+  /** The nickname or the regex pattern. Empty for {@link Operation#clear} */
+  public final String value;
+  
+  public Delta(long version, Operation operation, Target target, String value) {
+    this.version = version;
+    this.operation = operation;
+    this.target = target;
+    this.value = value;
+  }
+  
+  /** @return the delta as a single line, without the line terminator. */
+  public String encode() {
+    StringBuilder builder = new StringBuilder(value.length() + 32);
+    builder.append(version).append('\t').append(operation.name()).append('\t').append(target.name()).append('\t');
+    
+    for (int i=0; i<value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '\\': builder.append("\\\\"); break;
+        case '\t': builder.append("\\t"); break;
+        case '\n': builder.append("\\n"); break;
+        case '\r': builder.append("\\r"); break;
+        default: builder.append(c);
+      }
+    }
+    
+    return builder.toString();
+  }
+  
+  /** @throws IllegalArgumentException if the line is malformed */
+  public static Delta decode(String line) {
+    String[] parts = line.split("\t", 4);
+    if (parts.length != 4) throw new IllegalArgumentException("malformed delta: " + line);
+    
+    StringBuilder value = new StringBuilder(parts[3].length());
+    for (int i=0; i<parts[3].length(); i++) {
+      char c = parts[3].charAt(i);
+      if (c != '\\' || i+1 >= parts[3].length()) {
+        value.append(c);
+        continue;
+      }
+      
+      switch (c = parts[3].charAt(++i)) {
+        case 't': value.append('\t'); break;
+        case 'n': value.append('\n'); break;
+        case 'r': value.append('\r'); break;
+        default: value.append(c);
+      }
+    }
+    
+    try { 
+      return new Delta(Long.parseLong(parts[0]), Operation.valueOf(parts[1]), Target.valueOf(parts[2]), 
+                       value.toString()); 
+    } catch (IllegalArgumentException e) { 
+      throw new IllegalArgumentException("malformed delta: " + line, e); 
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return "#" + version + " " + operation + " " + target + (value.isEmpty() ? "" : " '" + value + "'");
+  }
+  
+  
+  public static enum Operation {
+    add, remove, clear
+  }
+  
+  public static enum Target {
+    names, regex
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.replication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import com.xpdustry.simple_blacklist.util.Logger;
+
+import arc.func.Cons;
+import arc.func.Prov;
+import arc.struct.Seq;
+
+
+/** 
+ * Transport using a log file, in a directory shared between servers. <br>
+ * The primary appends deltas to the file, and replicas read new lines since their last read. <br><br>
+ * 
+ * The file starts with a {@code #<id>} line, changed each time the file is rewritten. 
+ * When the log exceeds {@link #compactThreshold}, the primary rewrites it as a snapshot of lists, 
+ * with the current version, so replicas seeing a new id read it again from the start. 
+ * Files are read by chunks of {@link #chunkSize} bytes.
+ */
+public class DirectoryTransport implements Transport {
+  public static final String fileName = "blacklist-deltas.log";
+  /** The log is compacted above this size, and above twice the size of the last snapshot */
+  public static final long compactThreshold = 8 * 1024 * 1024;
+  public static final int chunkSize = 64 * 1024;
+  
+  private static final Logger logger = new Logger();
+  
+  protected final File file;
+  /** Provides a snapshot of lists, as deltas, for the primary. {@code null} for replicas */
+  protected final Prov<Seq<Delta>> snapshot;
+  /** Position of the next line to read, and version of the last line read, for replicas */
+  protected long offset, offsetVersion;
+  /** Id of the file when the offset was taken, for replicas */
+  protected String offsetId;
+  /** Version of the last delta in the file, or {@code -1} if not read yet, and size of the last snapshot */
+  protected long lastVersion = -1, snapshotSize;
+  
+  /** Creates a replica side transport */
+  public DirectoryTransport(File directory) {
+    this(directory, null);
+  }
+  
+  /** Creates a primary side transport, compacting the log with the {@code snapshot} */
+  public DirectoryTransport(File directory, Prov<Seq<Delta>> snapshot) {
+    this.file = new File(directory, fileName);
+    this.snapshot = snapshot;
+  }
+  
+  @Override
+  public void start() throws IOException {
+    File dir = file.getParentFile();
+    if (dir != null && !dir.isDirectory() && !dir.mkdirs()) 
+      throw new IOException("unable to create the directory: " + dir);
+  }
+  
+  @Override
+  public void close() {}
+  
+  @Override
+  public synchronized void publish(Delta delta) throws IOException {
+    boolean created = file.length() == 0;
+    try (FileOutputStream out = new FileOutputStream(file, true)) {
+      if (created) out.write(header().getBytes(StandardCharsets.UTF_8));
+      out.write((delta.encode() + '\n').getBytes(StandardCharsets.UTF_8));
+      out.getFD().sync();
+    }
+    if (lastVersion != -1) lastVersion = Math.max(lastVersion, delta.version);
+    
+    long length = file.length();
+    if (snapshot != null && length > compactThreshold && length > snapshotSize * 2) compact();
+  }
+
+  @Override
+  public synchronized Seq<Delta> pull(long since) throws IOException {
+    Seq<Delta> result = new Seq<>();
+    if (!file.exists()) return result;
+    
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      long length = raf.length();
+      String id = readId(raf);
+      // Start again from the beginning if the file was rewritten or if the replica is ahead of the primary
+      if (offset > length || since < offsetVersion || !id.equals(offsetId)) {
+        offset = offsetVersion = 0;
+        offsetId = id;
+      }
+      
+      if (offset >= length) {
+        if (since > offsetVersion && offsetVersion != 0) {
+          // The primary was reset, read the whole history
+          offset = offsetVersion = 0;
+          return pull(0);
+        }
+        return result;
+      }
+      
+      offset = read(raf, offset, line -> {
+        Delta delta = decode(line);
+        if (delta == null) return;
+        offsetVersion = delta.version;
+        if (delta.version > since) result.add(delta);
+      });
+    }
+    
+    return result;
+  }
+  
+  @Override
+  public synchronized long lastVersion() throws IOException {
+    if (lastVersion != -1) return lastVersion;
+    if (!file.exists()) return lastVersion = 0;
+    
+    long[] last = {0};
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      read(raf, 0, line -> {
+        Delta delta = decode(line);
+        if (delta != null) last[0] = Math.max(last[0], delta.version);
+      });
+    }
+    return lastVersion = last[0];
+  }
+  
+  /** Rewrites the log as a snapshot of lists, with a new id. The file is atomically replaced, when supported. */
+  protected void compact() throws IOException {
+    Seq<Delta> deltas = snapshot.get();
+    File temp = new File(file.getParentFile(), fileName + ".tmp");
+    
+    try (FileOutputStream fos = new FileOutputStream(temp); 
+         OutputStream out = new java.io.BufferedOutputStream(fos, chunkSize)) {
+      out.write(header().getBytes(StandardCharsets.UTF_8));
+      for (Delta delta : deltas) out.write((delta.encode() + '\n').getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      fos.getFD().sync();
+    }
+    
+    long before = file.length();
+    try { Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); }
+    catch (AtomicMoveNotSupportedException e) { 
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING); 
+    }
+    
+    snapshotSize = file.length();
+    if (!deltas.isEmpty()) lastVersion = Math.max(lastVersion, deltas.peek().version);
+    logger.info("Replication log compacted, from @ KB to @ KB.", before / 1024, snapshotSize / 1024);
+  }
+  
+  /** 
+   * Reads complete lines from {@code from}, by chunks. Lines starting with {@code #} are skipped.
+   * @return the position after the last complete line, the next one can be in writing
+   */
+  protected static long read(RandomAccessFile raf, long from, Cons<String> lines) throws IOException {
+    long length = raf.length(), position = from;
+    byte[] buffer = new byte[chunkSize];
+    
+    while (position < length) {
+      int size = (int)Math.min(buffer.length, length - position), start = 0;
+      raf.seek(position);
+      raf.readFully(buffer, 0, size);
+      
+      for (int i=0; i<size; i++) {
+        if (buffer[i] != '\n') continue;
+        if (i > start && buffer[start] != '#') lines.get(new String(buffer, start, i - start, StandardCharsets.UTF_8));
+        start = i + 1;
+      }
+      
+      if (start == 0) {
+        // Incomplete last line, or line longer than the buffer
+        if (size < buffer.length) break;
+        buffer = java.util.Arrays.copyOf(buffer, buffer.length * 2);
+      } else position += start;
+    }
+    return position;
+  }
+  
+  /** @return the id of the file, or an empty string for a file without header */
+  protected static String readId(RandomAccessFile raf) throws IOException {
+    byte[] buffer = new byte[64];
+    raf.seek(0);
+    int size = raf.read(buffer);
+    if (size <= 0 || buffer[0] != '#') return "";
+    for (int i=1; i<size; i++) {
+      if (buffer[i] == '\n') return new String(buffer, 1, i - 1, StandardCharsets.UTF_8);
+    }
+    return "";
+  }
+  
+  protected static String header() {
+    return "#" + Long.toHexString(java.util.concurrent.ThreadLocalRandom.current().nextLong()) + '\n';
+  }
+  
+  /** @return the decoded {@code line}, or {@code null} if malformed, which is logged and skipped */
+  protected Delta decode(String line) {
+    try { return Delta.decode(line); }
+    catch (IllegalArgumentException e) {
+      logger.warn("Skipping malformed replication delta in @: @", file, e.getMessage());
+      return null;
+    }
+  }
+  
+  @Override
+  public String toString() {
+    return "directory '" + file.getParent() + "'";
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.replication;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import com.xpdustry.simple_blacklist.Config;
+import com.xpdustry.simple_blacklist.Manager;
+import com.xpdustry.simple_blacklist.util.Logger;
+import com.xpdustry.simple_blacklist.util.NameArena;
+
+import arc.Core;
+import arc.struct.ObjectIntMap;
+import arc.struct.Seq;
+import arc.util.Timer;
+
+
+/** 
+ * Replication of lists between servers. <br>
+ * On the primary, each list modification is a new {@link Delta}, with an increasing version, 
+ * published with the configured {@link Transport}. 
+ * Replicas periodically pull the deltas newer than their version, and apply them to their lists.
+ */
+public class Replication {
+  private static final Logger logger = new Logger();
+  private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "SimpleBlacklist-Replication");
+    thread.setDaemon(true);
+    return thread;
+  });
+  
+  private static Transport transport;
+  private static Mode mode = Mode.off;
+  private static Timer.Task pullTask;
+  private static volatile boolean pulling;
+  /** Replication settings used by the last {@link #init()} */
+  private static String lastSettings;
+  
+  /** (Re)starts the replication with the current settings. */
+  public static synchronized void init() {
+    stop();
+    lastSettings = settings();
+    mode = Config.replicationMode.get();
+    if (mode == Mode.off) return;
+
+    if (Config.replicationTransport.get() == TransportType.directory) {
+      String path = Config.replicationPath.get();
+      if (path.isEmpty()) {
+        logger.err("Replication path is not defined, replication disabled.");
+        mode = Mode.off;
+        return;
+      }
+      if (mode == Mode.primary) transport = new DirectoryTransport(new java.io.File(path), Replication::snapshot);
+      else transport = new DirectoryTransport(new java.io.File(path));
+      
+    } else if (mode == Mode.primary) 
+         transport = new TcpTransport(Config.replicationAddress.get(), Config.replicationPort.get(), Replication::snapshot);
+    else transport = new TcpTransport(Config.replicationAddress.get(), Config.replicationPort.get());
+    
+    try { 
+      transport.start(); 
+      
+      if (mode == Mode.primary) {
+        long version = Math.max(Config.replicationVersion.get(), transport.lastVersion());
+        Config.replicationVersion.set(version);
+        // First start, send the whole lists
+        if (version == 0) snapshot(true).each(Replication::send);
+      }
+      
+    } catch (Exception e) {
+      logger.err("Unable to start the replication using " + transport, e);
+      transport.close();
+      transport = null;
+      mode = Mode.off;
+      return;
+    }
+    
+    if (mode == Mode.replica) {
+      float interval = Math.max(1, Config.replicationInterval.get());
+      pullTask = Timer.schedule(Replication::pull, 0, interval);
+    }
+    logger.info("Replication started as @, using @.", mode.desc, transport);
+  }
+  
+  /** Restarts the replication only if its settings were changed since the last {@link #init()}. */
+  public static synchronized void reloadIfChanged() {
+    if (!settings().equals(lastSettings)) init();
+  }
+  
+  private static String settings() {
+    return Config.replicationMode.get() + " " + Config.replicationTransport.get() + " " + 
+           Config.replicationPath.get() + " " + Config.replicationAddress.get() + " " + 
+           Config.replicationPort.get() + " " + Config.replicationInterval.get();
+  }
+  
+  public static synchronized void stop() {
+    if (pullTask != null) pullTask.cancel();
+    if (transport != null) transport.close();
+    pullTask = null;
+    transport = null;
+    mode = Mode.off;
+  }
+  
+  public static Mode mode() {
+    return mode;
+  }
+  
+  /** Publishes a list modification, if this server is the primary. */
+  public static synchronized void publish(Delta.Operation operation, Delta.Target target, String value) {
+    if (mode != Mode.primary || transport == null) return;
+    long version = Config.replicationVersion.get() + 1;
+    Config.replicationVersion.set(version);
+    send(new Delta(version, operation, target, value));
+  }
+  
+  private static void send(Delta delta) {
+    Transport t = transport;
+    executor.execute(() -> {
+      try { t.publish(delta); } 
+      catch (Exception e) { logger.err("Unable to publish the replication delta " + delta, e); }
+    });
+  }
+  
+  /** @return the current lists as deltas, with the current version. */
+  public static Seq<Delta> snapshot() {
+    return snapshot(false);
+  }
+  
+  /** 
+   * @param increment whether each delta should have its own version, 
+   *                  or all the current one.
+   */
+  private static Seq<Delta> snapshot(boolean increment) {
+    String[] names = Manager.getMatcher().names();
+    Pattern[] regexes = Manager.getMatcher().regexes();
+    Seq<Delta> result = new Seq<>(names.length + regexes.length + 2);
+    long version = Config.replicationVersion.get();
+    
+    if (increment) version++;
+    result.add(new Delta(version, Delta.Operation.clear, Delta.Target.names, ""));
+    if (increment) version++;
+    result.add(new Delta(version, Delta.Operation.clear, Delta.Target.regex, ""));
+    for (String name : names) {
+      if (increment) version++;
+      result.add(new Delta(version, Delta.Operation.add, Delta.Target.names, name));
+    }
+    for (Pattern regex : regexes) {
+      if (increment) version++;
+      result.add(new Delta(version, Delta.Operation.add, Delta.Target.regex, regex.pattern()));
+    }
+    
+    if (increment) Config.replicationVersion.set(version);
+    return result;
+  }
+  
+  /** Pulls new deltas from the primary, and applies them on the main thread. Called by replicas. */
+  public static void pull() {
+    Transport t = transport;
+    if (t == null || pulling) return;
+    pulling = true;
+    
+    executor.execute(() -> {
+      try {
+        Seq<Delta> deltas = t.pull(Config.replicationVersion.get());
+        if (deltas.isEmpty()) pulling = false;
+        else Core.app.post(() -> {
+          try { apply(deltas); }
+          finally { pulling = false; }
+        });
+        
+      } catch (Exception e) {
+        pulling = false;
+        logger.debug("Unable to pull replication deltas from @: @", t, e.toString());
+      }
+    });
+  }
+  
+  /** Applies {@code deltas} to lists. Must be called on the main thread. */
+  public static void apply(Seq<Delta> deltas) {
+    long current = Config.replicationVersion.get(), last = current;
+    boolean snapshot = !deltas.isEmpty() && deltas.first().version <= current;
+    int applied = 0;
+    // Keep the counters of entries that will be cleared then added again
+    NameArena oldNames = null;
+    ObjectIntMap<String> oldRegex = null;
+    if (deltas.contains(d -> d.operation == Delta.Operation.clear)) {
+      oldNames = new NameArena(Config.names());
+      oldRegex = new ObjectIntMap<>();
+      for (ObjectIntMap.Entry<Pattern> e : Config.regexList.get()) oldRegex.put(e.key.pattern(), e.value);
+    }
+    
+    for (Delta delta : deltas) {
+      // A snapshot carries the same version for all deltas
+      if (!snapshot && delta.version <= current) continue;
+      
+      switch (delta.operation) {
+        case add:
+          if (delta.target == Delta.Target.names) Manager.addName(delta.value);
+          else {
+            try { Manager.addRegex(Pattern.compile(delta.value)); } 
+            catch (java.util.regex.PatternSyntaxException e) { 
+              logger.err("Ignoring invalid regex of replication delta @", delta);
+            }
+          }
+          break;
+          
+        case remove:
+          if (delta.target == Delta.Target.names) Manager.removeName(delta.value);
+          else Manager.removeRegex(delta.value);
+          break;
+          
+        case clear:
+          if (delta.target == Delta.Target.names) Manager.clearNames();
+          else Manager.clearRegex();
+          break;
+      }
+      
+      last = Math.max(last, delta.version);
+      applied++;
+    }
+
+    if (oldNames != null) {
+      NameArena names = Config.names();
+      ObjectIntMap<Pattern> regexes = Config.regexList.getForChange();
+      for (String name : names.keys()) 
+        Config.putName(name, oldNames.get(name, names.get(name, 0)));
+      for (Pattern regex : regexes.keys().toArray()) 
+        regexes.put(regex, oldRegex.get(regex.pattern(), regexes.get(regex, 0)));
+    }
+    
+    if (snapshot) last = deltas.peek().version;
+    // New entries can affect online players
+    if (deltas.contains(d -> d.operation == Delta.Operation.add)) Manager.checkOnlinePlayers();
+    
+    if (applied > 0 || last != current) {
+      Config.replicationVersion.set(last);
+      logger.info("Applied @ replication delta(s), now at version @.", applied, last);
+    }
+  }
+  
+  
+  public static enum Mode {
+    off("disabled"), primary("primary"), replica("replica");
+    
+    public final String desc;
+    Mode(String desc) { this.desc = desc; }
+  }
+  
+  public static enum TransportType {
+    directory, tcp
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.replication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import arc.func.Prov;
+import arc.struct.Seq;
+
+
+/** 
+ * Transport using a TCP connection, by default on the loopback interface. <br>
+ * The primary listens for replicas and keeps the deltas published since its start. 
+ * If a replica is too late, a snapshot of lists is sent instead.
+ * <p>
+ * Protocol: the replica sends {@code PULL <version>}, 
+ * the primary responds with one delta per line, and a single {@code .} line to end.
+ */
+public class TcpTransport implements Transport {
+  public static final int timeout = 5000, maxHistory = 4096;
+  
+  protected final String host;
+  protected final int port;
+  protected final boolean primary;
+  /** Provides a snapshot of lists, as deltas, for the primary */
+  protected final Prov<Seq<Delta>> snapshot;
+  protected final Seq<Delta> history = new Seq<>();
+  protected ServerSocket server;
+  protected Thread thread;
+  
+  /** Creates a replica side transport */
+  public TcpTransport(String host, int port) {
+    this(host, port, false, null);
+  }
+  
+  /** Creates a primary side transport */
+  public TcpTransport(String host, int port, Prov<Seq<Delta>> snapshot) {
+    this(host, port, true, snapshot);
+  }
+  
+  protected TcpTransport(String host, int port, boolean primary, Prov<Seq<Delta>> snapshot) {
+    this.host = host;
+    this.port = port;
+    this.primary = primary;
+    this.snapshot = snapshot;
+  }
+  
+  @Override
+  public void start() throws IOException {
+    if (!primary) return;
+    
+    server = new ServerSocket();
+    server.bind(new InetSocketAddress(InetAddress.getByName(host), port));
+    thread = new Thread(this::serve, "SimpleBlacklist-Replication-Server");
+    thread.setDaemon(true);
+    thread.start();
+  }
+  
+  @Override
+  public void close() {
+    if (server != null) {
+      try { server.close(); } 
+      catch (IOException ignored) {}
+    }
+    if (thread != null) thread.interrupt();
+  }
+
+  @Override
+  public void publish(Delta delta) {
+    synchronized (history) { 
+      history.add(delta);
+      if (history.size > maxHistory) history.remove(0);
+    }
+  }
+
+  @Override
+  public Seq<Delta> pull(long since) throws IOException {
+    Seq<Delta> result = new Seq<>();
+    
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(InetAddress.getByName(host), port), timeout);
+      socket.setSoTimeout(timeout);
+      
+      Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+      out.write("PULL " + since + "\n");
+      out.flush();
+      
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      String line;
+      while ((line = in.readLine()) != null) {
+        if (line.equals(".")) return result;
+        result.add(Delta.decode(line));
+      }
+    }
+    
+    throw new IOException("connection closed before the end of the response");
+  }
+  
+  protected void serve() {
+    while (!server.isClosed()) {
+      try (Socket socket = server.accept()) {
+        socket.setSoTimeout(timeout);
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        String request = in.readLine();
+        if (request == null || !request.startsWith("PULL ")) continue;
+        
+        long since;
+        try { since = Long.parseLong(request.substring(5).trim()); } 
+        catch (NumberFormatException e) { continue; }
+        
+        Writer out = new java.io.BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        for (Delta delta : deltasSince(since)) out.write(delta.encode() + "\n");
+        out.write(".\n");
+        out.flush();
+        
+      } catch (IOException e) {
+        if (server.isClosed()) return;
+      }
+    }
+  }
+  
+  protected Seq<Delta> deltasSince(long since) {
+    synchronized (history) {
+      long first = history.isEmpty() ? Long.MAX_VALUE : history.first().version,
+           last = history.isEmpty() ? 0 : history.peek().version;
+      
+      // The history covers the replica
+      if (since + 1 >= first && since <= last) return history.select(d -> d.version > since);
+    }
+    
+    // Too late, or ahead of the primary, send the whole lists
+    Seq<Delta> snap = snapshot.get();
+    if (!snap.isEmpty() && snap.first().version == since) return new Seq<>();
+    return snap;
+  }
+  
+  @Override
+  public String toString() {
+    return "tcp " + host + ':' + port;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.replication;
+
+import java.io.IOException;
+
+import arc.struct.Seq;
+
+
+/** 
+ * Way to send the deltas from the primary server to the replicas. <br>
+ * {@link #publish(Delta)} is only called on the primary and {@link #pull(long)} only on replicas. 
+ * Both are called outside of the main thread.
+ */
+public interface Transport {
+  void start() throws IOException;
+  
+  void close();
+  
+  /** Sends a new delta to the replicas */
+  void publish(Delta delta) throws IOException;
+  
+  /** 
+   * @return the deltas with a version greater than {@code since}, in order. <br>
+   *         If the primary is behind {@code since}, all the history, or a snapshot, is returned instead.
+   */
+  Seq<Delta> pull(long since) throws IOException;
+  
+  /** @return the version of the last known delta, or {@code 0} if unknown. */
+  default long lastVersion() throws IOException {
+    return 0;
+  }
+}
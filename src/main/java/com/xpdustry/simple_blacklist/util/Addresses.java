@@ -0,0 +1,196 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+
+/** 
+ * Converts IP addresses and client UUIDs to {@code long} keys, to be used in primitive collections. <br>
+ * IPv4 addresses are mapped exactly, IPv6 addresses are folded and unknown formats are hashed.
+ */
+public class Addresses {
+  /** Tags to avoid collisions between the different kinds of keys */
+  private static final long TAG_IPV4 = 1L << 62, TAG_SUBNET = 1L << 61;
+  
+  /** @return the key of the {@code address}, or of its /24 (IPv4) or /64 (IPv6) prefix, if {@code subnet} is true */
+  public static long key(String address, boolean subnet) {
+    long v4 = parseIPv4(address);
+    if (v4 != -1) return TAG_IPV4 | (subnet ? TAG_SUBNET | (v4 & 0xFFFFFF00L) : v4);
+    
+    if (address.indexOf(':') != -1) {
+      int[] groups = parseIPv6(address);
+      if (groups != null) {
+        long high = 0, low = 0;
+        for (int i=0; i<4; i++) high = (high << 16) | groups[i];
+        if (subnet) return mix(high) ^ TAG_SUBNET;
+        for (int i=4; i<8; i++) low = (low << 16) | groups[i];
+        return mix(high ^ mix(low));
+      }
+    }
+
+    return hash(address);
+  }
+  
+  /** 
+   * Decodes the id of a Mindustry UUID to a {@code long}. 
+   * Falls back to an hash of the string if the format is not the expected one.
+   * @see #isUUID(String)
+   */
+  public static long uuid(String uuid) {
+    if (!isUUID(uuid)) return hash(uuid);
+    
+    // The id is the first 8 bytes, the CRC following it in the server form is derived from it
+    long out = 0;
+    for (int i=0; i<10; i++) out = (out << 6) | base64(uuid.charAt(i));
+    // The 11th char only holds the 4 last bits of the id
+    return (out << 4) | (base64(uuid.charAt(10)) >>> 2);
+  }
+
+  /** 
+   * @return whether the {@code uuid} has the Mindustry format. The server form is a base64 of 16 bytes, 
+   *         the 8 bytes of the id and their CRC. The client form, of the id only, is also accepted.
+   */
+  public static boolean isUUID(String uuid) {
+    if (uuid == null) return false;
+    int len = uuid.length();
+    // 16 bytes gives 22 base64 chars plus two padding chars, 8 bytes gives 11 chars plus one
+    if (len == 24) {
+      if (uuid.charAt(22) != '=' || uuid.charAt(23) != '=') return false;
+    } else if (len != 12 || uuid.charAt(11) != '=') return false;
+    
+    for (int i=0, n=len == 24 ? 22 : 11; i<n; i++) {
+      if (base64(uuid.charAt(i)) == -1) return false;
+    }
+    return true;
+  }
+
+  /** @return the IPv4 {@code address} as an unsigned int, or {@code -1} if it's not a valid one. */
+  public static long parseIPv4(String address) {
+    int len = address.length();
+    if (len < 7 || len > 15) return -1;
+    
+    long out = 0;
+    int part = 0, digits = 0, dots = 0;
+    for (int i=0; i<len; i++) {
+      char c = address.charAt(i);
+      if (c >= '0' && c <= '9') {
+        part = part * 10 + (c - '0');
+        if (++digits > 3 || part > 255) return -1;
+      } else if (c == '.' && digits > 0 && dots < 3) {
+        out = (out << 8) | part;
+        part = digits = 0;
+        dots++;
+      } else return -1;
+    }
+    
+    if (dots != 3 || digits == 0) return -1;
+    return (out << 8) | part;
+  }
+  
+  /** @return the 8 groups of the IPv6 {@code address}, or {@code null} if it's not a valid one. */
+  public static int[] parseIPv6(String address) {
+    int len = address.indexOf('%'); // remove the scope id
+    if (len == -1) len = address.length();
+    if (len < 2) return null;
+    
+    int[] groups = new int[8];
+    int count = 0, compressAt = -1, i = 0;
+    
+    if (address.startsWith("::")) {
+      compressAt = 0;
+      i = 2;
+    }
+    
+    while (i < len) {
+      if (count >= 8) return null;
+      int start = i, value = 0;
+      
+      // An embedded IPv4 address, at the end
+      if (address.indexOf('.', i) != -1 && address.indexOf(':', i) == -1) {
+        long v4 = parseIPv4(address.substring(i, len));
+        if (v4 == -1 || count > 6) return null;
+        groups[count++] = (int)(v4 >>> 16);
+        groups[count++] = (int)(v4 & 0xFFFF);
+        i = len;
+        break;
+      }
+
+      for (; i<len; i++) {
+        int v = Character.digit(address.charAt(i), 16);
+        if (v == -1) break;
+        value = (value << 4) | v;
+      }
+      if (i == start || i - start > 4) return null;
+      groups[count++] = value;
+      
+      if (i < len) {
+        if (address.charAt(i) != ':') return null;
+        if (++i < len && address.charAt(i) == ':') {
+          if (compressAt != -1) return null;
+          compressAt = count;
+          i++;
+        } else if (i == len) return null;
+      }
+    }
+
+    if (compressAt == -1) return count == 8 ? groups : null;
+    if (count == 8) return null;
+    // Expand the '::'
+    int moved = count - compressAt;
+    System.arraycopy(groups, compressAt, groups, 8 - moved, moved);
+    java.util.Arrays.fill(groups, compressAt, 8 - moved, 0);
+    return groups;
+  }
+  
+  /** FNV-1a hash of the string, mixed to be spread over the 64 bits. */
+  public static long hash(String str) {
+    long h = 0xcbf29ce484222325L;
+    for (int i=0; i<str.length(); i++) {
+      h ^= str.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    return mix(h);
+  }
+  
+  /** Finalization step of MurmurHash3 */
+  public static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+  
+  private static int base64(char c) {
+    if (c >= 'A' && c <= 'Z') return c - 'A';
+    if (c >= 'a' && c <= 'z') return c - 'a' + 26;
+    if (c >= '0' && c <= '9') return c - '0' + 52;
+    if (c == '+') return 62;
+    if (c == '/') return 63;
+    return -1;
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import arc.struct.ObjectIntMap;
+import arc.util.Log;
+import arc.util.Log.LogLevel;
+
+
+/** 
+ * Logger that formats and prints messages on a dedicated thread. <br>
+ * Messages are stored in a bounded ring buffer, and dropped, with a counter, when it's full. <br>
+ * Repeated messages can also be aggregated by key, with {@link #aggregate(String, LogLevel, String, Object...)}.
+ */
+public class AsyncLogger extends Logger {
+  /** Interval, in milliseconds, between summaries of aggregated messages */
+  public final long window;
+  
+  private final LogLevel[] levels;
+  private final String[] texts;
+  private final Object[][] args;
+  private int head, size;
+  private long dropped;
+  
+  /** Aggregated messages count, per key, since the first message of the window */
+  private final ObjectIntMap<String> aggregated = new ObjectIntMap<>();
+  private long windowStart;
+  private Thread thread;
+  
+  public AsyncLogger() { this(4096, 10_000); }
+  public AsyncLogger(int capacity, long window) {
+    this.levels = new LogLevel[capacity];
+    this.texts = new String[capacity];
+    this.args = new Object[capacity][];
+    this.window = window;
+  }
+  
+  @Override
+  public void log(LogLevel level, String text, Object... args) {
+    if (Log.level.ordinal() > level.ordinal()) return;
+    
+    synchronized (this) {
+      if (!push(level, text, args)) return;
+      notify();
+    }
+  }
+  
+  /** 
+   * Logs the message only if it's the first one with this {@code key} in the window. 
+   * Others are counted and logged in a summary at the end of the window.
+   */
+  public void aggregate(String key, LogLevel level, String text, Object... args) {
+    if (Log.level.ordinal() > level.ordinal()) return;
+    
+    synchronized (this) {
+      if (aggregated.isEmpty()) windowStart = System.currentTimeMillis();
+      if (aggregated.increment(key, 0, 1) > 0) return;
+      if (!push(level, text, args)) return;
+      notify();
+    }
+  }
+  
+  /** @return the number of messages dropped because the buffer was full */
+  public synchronized long dropped() {
+    return dropped;
+  }
+  
+  /** Prints all pending messages and summaries, on the calling thread. */
+  public void flush() {
+    drain(true);
+  }
+  
+  /** Must be called with the lock */
+  private boolean push(LogLevel level, String text, Object[] args) {
+    if (size == texts.length) {
+      dropped++;
+      return false;
+    }
+
+    int i = (head + size++) % texts.length;
+    levels[i] = level;
+    texts[i] = text;
+    this.args[i] = args;
+    
+    if (thread == null) {
+      thread = new Thread(this::run, "SimpleBlacklist-Logger");
+      thread.setDaemon(true);
+      thread.start();
+    }
+    return true;
+  }
+  
+  private void run() {
+    try {
+      while (true) {
+        synchronized (this) {
+          long timeout = aggregated.isEmpty() ? 0 : Math.max(1, windowStart + window - System.currentTimeMillis());
+          if (size == 0) wait(timeout);
+        }
+        drain(false);
+      }
+    } catch (InterruptedException ignored) {}
+  }
+  
+  private void drain(boolean force) {
+    LogLevel[] lvls;
+    String[] txts;
+    Object[][] argss;
+    long lost;
+    ObjectIntMap<String> summary = null;
+    long elapsed = 0;
+    
+    synchronized (this) {
+      lvls = new LogLevel[size];
+      txts = new String[size];
+      argss = new Object[size][];
+      for (int i=0; i<lvls.length; i++) {
+        int j = (head + i) % texts.length;
+        lvls[i] = levels[j];
+        txts[i] = texts[j];
+        argss[i] = args[j];
+        texts[j] = null;
+        args[j] = null;
+      }
+      head = (head + size) % texts.length;
+      size = 0;
+      
+      lost = dropped;
+      dropped = 0;
+      
+      elapsed = System.currentTimeMillis() - windowStart;
+      if (!aggregated.isEmpty() && (force || elapsed >= window)) {
+        summary = new ObjectIntMap<>(aggregated);
+        aggregated.clear();
+      }
+    }
+    
+    for (int i=0; i<lvls.length; i++) super.log(lvls[i], txts[i], argss[i]);
+    if (lost > 0) super.log(LogLevel.warn, "@ log message(s) dropped, because too many were sent.", lost);
+    if (summary != null) {
+      for (ObjectIntMap.Entry<String> e : summary) {
+        // The first message was already logged
+        if (e.value > 1) 
+          super.log(LogLevel.info, "@ similar message(s) for '@' in the last @ seconds.", 
+                    e.value - 1, e.key, elapsed / 1000);
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import arc.struct.ObjectIntMap;
+
+
+/** 
+ * Grow-only counter, with one count per node. <br>
+ * Merging takes the maximum per node, so it can be done in any order and any number of times. 
+ */
+public class GCounter {
+  public final ObjectIntMap<String> counts = new ObjectIntMap<>(4);
+  
+  public void increment(String node) {
+    counts.increment(node);
+  }
+
+  public void increment(String node, int amount) {
+    if (amount > 0) counts.increment(node, amount);
+  }
+  
+  public int get(String node) {
+    return counts.get(node, 0);
+  }
+  
+  /** Sets the count of {@code node} if greater than the current one. */
+  public void merge(String node, int count) {
+    if (count > counts.get(node, 0)) counts.put(node, count);
+  }
+  
+  public void merge(GCounter other) {
+    for (ObjectIntMap.Entry<String> e : other.counts) merge(e.key, e.value);
+  }
+  
+  public int total() {
+    int total = 0;
+    for (ObjectIntMap.Entry<String> e : counts) total += e.value;
+    return total;
+  }
+}
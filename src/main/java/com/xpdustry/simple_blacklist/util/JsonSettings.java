@@ -180,6 +180,11 @@ public class JsonSettings {
     }
   }  
   
+  /** @return the raw json value, without decoding it, or {@code null} if not found */
+  public synchronized JsonValue getRaw(String name) {
+    return values.get(name);
+  }
+  
   public <T> T getOrPut(String name, Class<T> type, T def) {
     return getOrPut(name, type, null, def);
   }
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import arc.func.Cons;
+
+
+/** 
+ * Reader of newline-delimited list files, for lists too big to be kept in the config. <br>
+ * Each line is a nickname, or a regex if between slashes, like {@code /pattern/}. 
+ * Empty lines and lines starting with {@code #} are ignored, and lines are trimmed. <br><br>
+ * 
+ * Files are read by chunks of {@link #bufferSize} bytes, into a direct buffer kept per thread. 
+ * ASCII nicknames are copied directly from the buffer into the {@link NameArena}, 
+ * so only non-ASCII nicknames and regex are decoded into a {@link String}.
+ */
+public class ListFile {
+  /** Bytes read at once. Lines crossing the end of the buffer are moved to its start before the next read. */
+  public static final int bufferSize = 1024 * 1024;
+  /** Longer lines are ignored, nicknames are far shorter */
+  public static final int maxLineLength = 256;
+  
+  /** Reused for each read, instead of a mapping per file which stays until garbage collected */
+  private static final ThreadLocal<ByteBuffer> buffers = 
+      ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(bufferSize));
+  
+  /** 
+   * Reads the {@code file}, and adds its nicknames to {@code names}, with {@code 0} uses.
+   * @param regex receives regex lines, without slashes
+   */
+  public static Result read(File file, NameArena names, Cons<String> regex) throws IOException {
+    Result result = new Result();
+    ByteBuffer buffer = buffers.get();
+    ((java.nio.Buffer)buffer).clear();
+    
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      int carried = 0;
+      boolean skipping = false;
+      
+      while (true) {
+        boolean end = channel.read(buffer) == -1;
+        int length = buffer.position(), start = 0;
+        
+        // Carried bytes are the start of an incomplete line, so without newline
+        for (int i=carried; i<length; i++) {
+          if (buffer.get(i) != '\n') continue;
+          // End of a line too long to fit in the buffer
+          if (skipping) skipping = false;
+          else line(buffer, start, i, names, regex, result);
+          start = i + 1;
+        }
+        
+        if (end) {
+          if (!skipping) line(buffer, start, length, names, regex, result);
+          break;
+        } else if (start == 0 && length == buffer.capacity()) {
+          if (!skipping) result.skipped++;
+          skipping = true;
+          ((java.nio.Buffer)buffer).clear();
+          carried = 0;
+        } else {
+          // Move the incomplete line at the start of the buffer
+          ((java.nio.Buffer)buffer).flip();
+          ((java.nio.Buffer)buffer).position(start);
+          buffer.compact();
+          carried = length - start;
+        }
+      }
+    }
+    
+    return result;
+  }
+  
+  private static void line(ByteBuffer buffer, int start, int end, NameArena names, Cons<String> regex, 
+                           Result result) {
+    while (start < end && (buffer.get(start) & 0xff) <= ' ') start++;
+    while (end > start && (buffer.get(end-1) & 0xff) <= ' ') end--;
+    int length = end - start;
+    if (length == 0 || buffer.get(start) == '#') return;
+    else if (length > maxLineLength) {
+      result.skipped++;
+      return;
+    }
+    
+    if (length > 2 && buffer.get(start) == '/' && buffer.get(end-1) == '/') {
+      regex.get(decode(buffer, start+1, end-1));
+      result.regex++;
+      return;
+    }
+    
+    boolean ascii = true;
+    for (int i=start; i<end; i++) {
+      if (buffer.get(i) < 0) {
+        ascii = false;
+        break;
+      }
+    }
+    
+    if (ascii) {
+      if (names.putAscii(buffer, start, length, 0)) result.names++;
+      else result.duplicates++;
+    } else {
+      String name = decode(buffer, start, end);
+      if (names.containsKey(name)) result.duplicates++;
+      else {
+        names.put(name, 0);
+        result.names++;
+      }
+    }
+  }
+  
+  private static String decode(ByteBuffer buffer, int start, int end) {
+    ByteBuffer slice = buffer.duplicate();
+    // Through Buffer, because the covariant overrides of ByteBuffer don't exist before Java 9
+    ((java.nio.Buffer)slice).limit(end);
+    ((java.nio.Buffer)slice).position(start);
+    return StandardCharsets.UTF_8.decode(slice).toString();
+  }
+  
+  
+  public static class Result {
+    public int names, regex, duplicates, skipped;
+  }
+}
@@ -39,11 +39,21 @@ public class Logger {
   protected static final Object[] empty = {};
   protected static String[] colorTags = {"&lc&fb", "&lb&fb", "&ly&fb", "&lr&fb", ""};
   protected static String mainTopic;
+  /** Topic prefix of each level, with and without console colors */
+  protected static String[] topics, plainTopics;
 
   public static void init(String mainTopic, Class<? extends mindustry.mod.Plugin> mainClass) {
     if (mainTopic != null) {
       mainTopic = mainTopic.trim();
-      if (!mainTopic.isEmpty()) Logger.mainTopic = '[' + mainTopic + ']';
+      if (!mainTopic.isEmpty()) {
+        Logger.mainTopic = '[' + mainTopic + ']';
+        topics = new String[colorTags.length];
+        plainTopics = new String[colorTags.length];
+        for (int i=0; i<colorTags.length; i++) {
+          topics[i] = Template.format(Template.Mode.console, colorTags[i] + Logger.mainTopic + "&fr ");
+          plainTopics[i] = Template.format(Template.Mode.none, colorTags[i] + Logger.mainTopic + "&fr ");
+        }
+      }
     }
 
     if (slf4mdPresentAndEnabled) 
@@ -53,7 +63,7 @@ public class Logger {
   public void log(LogLevel level, String text, Object... args) {
     if (Log.level.ordinal() > level.ordinal()) return;
 
-    text = Log.format(text, args);
+    text = Template.get(text).render(Log.useColors ? Template.Mode.console : Template.Mode.none, false, args);
     
     if (slf4mdPresentAndEnabled && slf4jLogger != null) {
       synchronized (slf4jLogger) {
@@ -76,7 +86,7 @@ public class Logger {
         if (mainTopic == null) {
           for (String line : text.split("\n")) Log.logger.log(level, line);
         } else {
-          String topic = Log.format(colorTags[level.ordinal()] + mainTopic + "&fr ");
+          String topic = (Log.useColors ? topics : plainTopics)[level.ordinal()];
           for (String line : text.split("\n")) Log.logger.log(level, topic + line);
         }
       }
@@ -0,0 +1,145 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+
+/** 
+ * Set of {@code long}, stored in a primitive open-addressing table with linear probing. <br>
+ * Removals use backward shifting, so there is no tombstones.
+ */
+public class LongSet {
+  private long[] keys;
+  /** {@code 0} is used to mark empty slots, so it's stored apart */
+  private boolean hasZero;
+  private int size, mask, threshold;
+  
+  public LongSet() { this(64); }
+  public LongSet(int initialCapacity) {
+    allocate(Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 2));
+  }
+  
+  public synchronized boolean contains(long key) {
+    if (key == 0) return hasZero;
+    for (int i=index(key); keys[i] != 0; i=(i + 1) & mask) {
+      if (keys[i] == key) return true;
+    }
+    return false;
+  }
+  
+  /** @return {@code true} if the key was not already in the set */
+  public synchronized boolean add(long key) {
+    if (key == 0) {
+      if (hasZero) return false;
+      hasZero = true;
+      size++;
+      return true;
+    }
+
+    int i = index(key);
+    for (; keys[i] != 0; i=(i + 1) & mask) {
+      if (keys[i] == key) return false;
+    }
+    keys[i] = key;
+    if (++size >= threshold) resize(keys.length << 1);
+    return true;
+  }
+
+  /** @return {@code true} if the key was in the set */
+  public synchronized boolean remove(long key) {
+    if (key == 0) {
+      if (!hasZero) return false;
+      hasZero = false;
+      size--;
+      return true;
+    }
+    
+    int i = index(key);
+    for (;; i=(i + 1) & mask) {
+      if (keys[i] == 0) return false;
+      if (keys[i] == key) break;
+    }
+    
+    // Shift back the next keys of the cluster, to fill the hole
+    for (int j=(i + 1) & mask; keys[j] != 0; j=(j + 1) & mask) {
+      int home = index(keys[j]);
+      // Move the key only if its home slot is not between the hole and its current position
+      if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+        keys[i] = keys[j];
+        i = j;
+      }
+    }
+    keys[i] = 0;
+    size--;
+    return true;
+  }
+  
+  public synchronized void clear() {
+    java.util.Arrays.fill(keys, 0);
+    hasZero = false;
+    size = 0;
+  }
+  
+  public synchronized int size() {
+    return size;
+  }
+  
+  public synchronized boolean isEmpty() {
+    return size == 0;
+  }
+  
+  /** @return a copy of the keys */
+  public synchronized long[] toArray() {
+    long[] out = new long[size];
+    int n = 0;
+    if (hasZero) out[n++] = 0;
+    for (long k : keys) {
+      if (k != 0) out[n++] = k;
+    }
+    return out;
+  }
+  
+  private int index(long key) {
+    return (int)Addresses.mix(key) & mask;
+  }
+  
+  private void resize(int capacity) {
+    long[] old = keys;
+    allocate(capacity);
+    for (long k : old) {
+      if (k == 0) continue;
+      int i = index(k);
+      while (keys[i] != 0) i = (i + 1) & mask;
+      keys[i] = k;
+    }
+  }
+  
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    mask = capacity - 1;
+    threshold = capacity / 2;
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import arc.struct.Seq;
+
+
+/** 
+ * Map of nicknames to an {@code int}, packed in a single byte arena instead of a {@link String} per entry. <br>
+ * Names are encoded in Latin-1 when possible, else in UTF-16, like compact strings of the JDK, 
+ * and located with an offset table. Lookups use a primitive open-addressing index of slots, 
+ * with backward shifting on removal. <br><br>
+ * 
+ * The arena is only appended to, and removed slots are kept until a compaction, 
+ * so a {@link Data} obtained before a modification stays valid for the slots it contained. 
+ * Compactions and clears change the {@link #epoch()}, because slots are then renumbered. <br>
+ * Modifications are not thread safe.
+ */
+public class NameArena implements Iterable<NameArena.Entry> {
+  /** Set on the length of names encoded in UTF-16 */
+  static final int wideFlag = 0x80000000;
+  
+  public int size;
+  private Data data;
+  /** Number of used slots, including removed ones, and of used bytes */
+  private int count, used, removedBytes, epoch;
+  private int[] values, hashes;
+  private long[] removed;
+  /** Slot + 1 of each entry, {@code 0} marks empty cells */
+  private int[] index;
+  private int mask;
+  
+  public NameArena() { this(16); }
+  public NameArena(int initialCapacity) {
+    initialCapacity = Math.max(16, initialCapacity);
+    allocate(initialCapacity, initialCapacity * 12);
+  }
+  public NameArena(NameArena other) {
+    this(other.size);
+    for (Entry e : other) put(e.key, e.value);
+  }
+  
+  public boolean isEmpty() {
+    return size == 0;
+  }
+  
+  public boolean containsKey(String key) {
+    return find(key) != -1;
+  }
+  
+  public int get(String key, int defaultValue) {
+    int slot = find(key);
+    return slot == -1 ? defaultValue : values[slot];
+  }
+  
+  public void put(String key, int value) {
+    int slot = find(key);
+    if (slot != -1) values[slot] = value;
+    else append(key, value);
+  }
+  
+  /** 
+   * Same as {@link #put(String, int)}, but with a key made of {@code length} ASCII bytes of the {@code source},
+   * copied directly in the arena, without decoding them in a {@link String}.
+   * @return {@code false} if the key was already in the map
+   */
+  public boolean putAscii(java.nio.ByteBuffer source, int from, int length, int value) {
+    ensureCapacity(count + 1, used + length);
+    byte[] bytes = data.bytes;
+    int hash = 0;
+    for (int i=0; i<length; i++) {
+      byte b = source.get(from + i);
+      bytes[used + i] = b;
+      hash = 31 * hash + b;
+    }
+    
+    // The key is written after the last name, but only kept if not already there
+    next:
+    for (int i=home(hash); index[i] != 0; i=(i + 1) & mask) {
+      int slot = index[i] - 1;
+      if (hashes[slot] != hash || data.lengths[slot] != length) continue;
+      for (int j=0, o=data.offsets[slot]; j<length; j++) {
+        if (bytes[o + j] != bytes[used + j]) continue next;
+      }
+      values[slot] = value;
+      return false;
+    }
+    
+    data.offsets[count] = used;
+    data.lengths[count] = length;
+    values[count] = value;
+    hashes[count] = hash;
+    used += length;
+    size++;
+    if ((size << 1) > index.length) rehash(index.length << 1);
+    insert(count++);
+    return true;
+  }
+  
+  /** 
+   * Increments the value of the {@code key}, starting at {@code 0}.
+   * @return the value before the increment
+   */
+  public int increment(String key) {
+    int slot = find(key);
+    if (slot == -1) {
+      append(key, 1);
+      return 0;
+    }
+    return values[slot]++;
+  }
+  
+  /** @return {@code false} if the {@code key} was not in the map */
+  public boolean remove(String key) {
+    int slot = find(key);
+    if (slot == -1) return false;
+    
+    int i = home(hashes[slot]);
+    while (index[i] != slot + 1) i = (i + 1) & mask;
+    // Shift back the next slots of the cluster, to fill the hole
+    for (int j=(i + 1) & mask; index[j] != 0; j=(j + 1) & mask) {
+      int home = home(hashes[index[j] - 1]);
+      if (i <= j ? (home <= i || home > j) : (home <= i && home > j)) {
+        index[i] = index[j];
+        i = j;
+      }
+    }
+    index[i] = 0;
+    
+    removed[slot >>> 6] |= 1L << slot;
+    removedBytes += byteLength(data.lengths[slot]);
+    size--;
+    // Removed names are reclaimed when they waste more than half of the arena
+    if (removedBytes > used / 2 && used > 4096) compact();
+    return true;
+  }
+  
+  public void clear() {
+    allocate(16, 192);
+    count = used = removedBytes = size = 0;
+    epoch++;
+  }
+  
+  /** @return a new list of the keys */
+  public Seq<String> keys() {
+    Seq<String> keys = new Seq<>(size);
+    for (int i=0; i<count; i++) {
+      if (!isRemoved(i)) keys.add(data.get(i));
+    }
+    return keys;
+  }
+  
+  /** @return the slot of the {@code key}, or {@code -1} if not found */
+  public int find(String key) {
+    int hash = key.hashCode();
+    for (int i=home(hash); index[i] != 0; i=(i + 1) & mask) {
+      int slot = index[i] - 1;
+      if (hashes[slot] == hash && data.equals(slot, key)) return slot;
+    }
+    return -1;
+  }
+  
+  /** @return the number of used slots, including removed ones */
+  public int slots() {
+    return count;
+  }
+  
+  public boolean isRemoved(int slot) {
+    return (removed[slot >>> 6] & (1L << slot)) != 0;
+  }
+  
+  public int valueAt(int slot) {
+    return values[slot];
+  }
+  
+  /** @return the current arrays of the arena, valid for the slots already used */
+  public Data data() {
+    return data;
+  }
+  
+  /** @return a number changed each time slots are renumbered */
+  public int epoch() {
+    return epoch;
+  }
+  
+  /** @return the approximate number of bytes used by the arena and its tables */
+  public long memoryUsage() {
+    return data.bytes.length + (data.offsets.length + data.lengths.length + values.length + hashes.length + 
+           index.length) * 4L + removed.length * 8L;
+  }
+  
+  /** Rewrites the arena without removed names. This renumbers slots. */
+  public void compact() {
+    Data old = data;
+    int[] oldValues = values, oldHashes = hashes, order = new int[size];
+    int n = 0;
+    for (int i=0; i<count; i++) {
+      if (!isRemoved(i)) order[n++] = i;
+    }
+    
+    allocate(Math.max(16, size), Math.max(192, used - removedBytes));
+    count = used = removedBytes = 0;
+    for (int slot : order) {
+      int length = byteLength(old.lengths[slot]);
+      System.arraycopy(old.bytes, old.offsets[slot], data.bytes, used, length);
+      data.offsets[count] = used;
+      data.lengths[count] = old.lengths[slot];
+      values[count] = oldValues[slot];
+      hashes[count] = oldHashes[slot];
+      insert(count++);
+      used += length;
+    }
+    epoch++;
+  }
+  
+  @Override
+  public Iterator<Entry> iterator() {
+    return new Iterator<Entry>() {
+      final Entry entry = new Entry();
+      int next = skip(0);
+      
+      public boolean hasNext() { return next < count; }
+      
+      public Entry next() {
+        if (next >= count) throw new NoSuchElementException();
+        entry.key = data.get(next);
+        entry.value = values[next];
+        next = skip(next + 1);
+        return entry;
+      }
+      
+      int skip(int i) {
+        while (i < count && isRemoved(i)) i++;
+        return i;
+      }
+    };
+  }
+  
+  private void append(String key, int value) {
+    boolean wide = false;
+    for (int i=0; i<key.length(); i++) {
+      if (key.charAt(i) > 0xff) {
+        wide = true;
+        break;
+      }
+    }
+    
+    int length = wide ? key.length() * 2 : key.length();
+    ensureCapacity(count + 1, used + length);
+    byte[] bytes = data.bytes;
+    if (wide) {
+      for (int i=0, o=used; i<key.length(); i++, o+=2) {
+        char c = key.charAt(i);
+        bytes[o] = (byte)(c >>> 8);
+        bytes[o+1] = (byte)c;
+      }
+    } else {
+      for (int i=0; i<key.length(); i++) bytes[used+i] = (byte)key.charAt(i);
+    }
+    
+    data.offsets[count] = used;
+    data.lengths[count] = wide ? key.length() | wideFlag : key.length();
+    values[count] = value;
+    hashes[count] = key.hashCode();
+    used += length;
+    size++;
+    if ((size << 1) > index.length) rehash(index.length << 1);
+    insert(count++);
+  }
+  
+  private void insert(int slot) {
+    int i = home(hashes[slot]);
+    while (index[i] != 0) i = (i + 1) & mask;
+    index[i] = slot + 1;
+  }
+  
+  private int home(int hash) {
+    return (int)Addresses.mix(hash) & mask;
+  }
+  
+  private void rehash(int capacity) {
+    index = new int[capacity];
+    mask = capacity - 1;
+    for (int i=0; i<count; i++) {
+      if (!isRemoved(i)) insert(i);
+    }
+  }
+  
+  private void ensureCapacity(int slots, int bytes) {
+    if (slots <= values.length && bytes <= data.bytes.length) return;
+    // A new data is created, so the previous one still sees its own arrays
+    int slotCapacity = slots <= values.length ? values.length : Math.max(slots, values.length + (values.length >> 1));
+    int byteCapacity = bytes <= data.bytes.length ? data.bytes.length : 
+                       Math.max(bytes, data.bytes.length + (data.bytes.length >> 1));
+    data = new Data(java.util.Arrays.copyOf(data.bytes, byteCapacity), 
+                    java.util.Arrays.copyOf(data.offsets, slotCapacity), 
+                    java.util.Arrays.copyOf(data.lengths, slotCapacity));
+    values = java.util.Arrays.copyOf(values, slotCapacity);
+    hashes = java.util.Arrays.copyOf(hashes, slotCapacity);
+    removed = java.util.Arrays.copyOf(removed, (slotCapacity + 63) >>> 6);
+  }
+  
+  private void allocate(int slots, int bytes) {
+    data = new Data(new byte[bytes], new int[slots], new int[slots]);
+    values = new int[slots];
+    hashes = new int[slots];
+    removed = new long[(slots + 63) >>> 6];
+    index = new int[Integer.highestOneBit(slots - 1) << 2];
+    mask = index.length - 1;
+  }
+  
+  static int byteLength(int length) {
+    return (length & wideFlag) != 0 ? (length & ~wideFlag) * 2 : length;
+  }
+  
+  
+  /** Arrays of the arena. Their content is never changed for used slots, so they can be read from any thread. */
+  public static class Data {
+    final byte[] bytes;
+    final int[] offsets, lengths;
+    
+    Data(byte[] bytes, int[] offsets, int[] lengths) {
+      this.bytes = bytes;
+      this.offsets = offsets;
+      this.lengths = lengths;
+    }
+    
+    /** Decodes the name of the {@code slot} */
+    public String get(int slot) {
+      int length = lengths[slot] & ~wideFlag;
+      char[] chars = new char[length];
+      for (int i=0; i<length; i++) chars[i] = charAt(slot, i, false);
+      return new String(chars);
+    }
+    
+    /** @return whether the name of the {@code slot} is contained in the {@code text} */
+    public boolean containedIn(int slot, String text, boolean lowerCase) {
+      int length = lengths[slot] & ~wideFlag, last = text.length() - length;
+      if (length == 0) return true;
+      char first = charAt(slot, 0, lowerCase);
+      
+      next:
+      for (int i=0; i<=last; i++) {
+        if (text.charAt(i) != first) continue;
+        for (int j=1; j<length; j++) {
+          if (text.charAt(i+j) != charAt(slot, j, lowerCase)) continue next;
+        }
+        return true;
+      }
+      return false;
+    }
+    
+    /** @return whether the name of the {@code slot} is the {@code key} */
+    public boolean equals(int slot, String key) {
+      int length = lengths[slot] & ~wideFlag;
+      if (length != key.length()) return false;
+      for (int i=0; i<length; i++) {
+        if (key.charAt(i) != charAt(slot, i, false)) return false;
+      }
+      return true;
+    }
+    
+    private char charAt(int slot, int i, boolean lowerCase) {
+      int offset = offsets[slot];
+      char c = (lengths[slot] & wideFlag) != 0 ? (char)((bytes[offset + 2*i] & 0xff) << 8 | bytes[offset + 2*i + 1] & 0xff) 
+                                               : (char)(bytes[offset + i] & 0xff);
+      return lowerCase ? Character.toLowerCase(c) : c;
+    }
+  }
+  
+  
+  public static class Entry {
+    public String key;
+    public int value;
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.util.Arrays;
+
+
+/** 
+ * Persistent trie of strings, where each key maps to one or more {@code int} ids. <br>
+ * Published nodes are never modified: insertions and removals copy the path of the key, 
+ * so they take a time proportional to its length, and previous roots stay valid. 
+ * A root can then be read from any thread while the trie is modified. <br>
+ * Paths are walked iteratively, so long keys cannot overflow the stack.
+ */
+public class NameTrie {
+  public static final Node empty = new Node(new char[0], new Node[0], null);
+  
+  /** @return a new root, with the {@code id} added to the {@code key} */
+  public static Node insert(Node root, String key, int id) {
+    int length = key.length(), depth = 0;
+    Node[] path = new Node[length];
+    int[] index = new int[length];
+    Node node = root;
+    
+    // Walk the existing part of the path, iteratively to not overflow the stack with long keys
+    for (; depth<length; depth++) {
+      int i = Arrays.binarySearch(node.keys, key.charAt(depth));
+      if (i < 0) break;
+      path[depth] = node;
+      index[depth] = i;
+      node = node.children[i];
+    }
+    
+    Node result;
+    if (depth == length) result = new Node(node.keys, node.children, append(node.ids, id));
+    else {
+      // Build the missing part from the end, then insert it in the last existing node
+      result = new Node(empty.keys, empty.children, new int[] {id});
+      for (int d=length-1; d>depth; d--) result = new Node(new char[] {key.charAt(d)}, new Node[] {result}, null);
+      
+      int i = -Arrays.binarySearch(node.keys, key.charAt(depth))-1;
+      char[] keys = new char[node.keys.length+1];
+      Node[] children = new Node[keys.length];
+      System.arraycopy(node.keys, 0, keys, 0, i);
+      System.arraycopy(node.keys, i, keys, i+1, node.keys.length-i);
+      System.arraycopy(node.children, 0, children, 0, i);
+      System.arraycopy(node.children, i, children, i+1, node.keys.length-i);
+      keys[i] = key.charAt(depth);
+      children[i] = result;
+      result = new Node(keys, children, node.ids);
+    }
+    
+    return copyPath(path, index, depth, result);
+  }
+  
+  /** 
+   * Branches left without any id are removed along the path.
+   * @return a new root, without the {@code id} of the {@code key}, or the same if not found 
+   */
+  public static Node remove(Node root, String key, int id) {
+    int length = key.length();
+    Node[] path = new Node[length];
+    int[] index = new int[length];
+    Node node = root;
+    
+    for (int d=0; d<length; d++) {
+      int i = Arrays.binarySearch(node.keys, key.charAt(d));
+      if (i < 0) return root;
+      path[d] = node;
+      index[d] = i;
+      node = node.children[i];
+    }
+    
+    int found = indexOf(node.ids, id);
+    if (found == -1) return root;
+    int[] ids = null;
+    if (node.ids.length > 1) {
+      ids = new int[node.ids.length-1];
+      System.arraycopy(node.ids, 0, ids, 0, found);
+      System.arraycopy(node.ids, found+1, ids, found, ids.length-found);
+    }
+    
+    // Remove nodes left empty, from the end, until one is kept
+    int depth = length;
+    Node result = ids == null && node.keys.length == 0 ? null : new Node(node.keys, node.children, ids);
+    while (result == null && depth > 0) {
+      Node parent = path[--depth];
+      int i = index[depth];
+      if (parent.keys.length == 1 && parent.ids == null) continue;
+      
+      char[] keys = new char[parent.keys.length-1];
+      Node[] children = new Node[keys.length];
+      System.arraycopy(parent.keys, 0, keys, 0, i);
+      System.arraycopy(parent.keys, i+1, keys, i, keys.length-i);
+      System.arraycopy(parent.children, 0, children, 0, i);
+      System.arraycopy(parent.children, i+1, children, i, keys.length-i);
+      result = new Node(keys, children, parent.ids);
+    }
+    
+    return result == null ? empty : copyPath(path, index, depth, result);
+  }
+  
+  /** @return the root of a copy of the {@code depth} first nodes of the {@code path}, ending with {@code last} */
+  private static Node copyPath(Node[] path, int[] index, int depth, Node last) {
+    for (int d=depth-1; d>=0; d--) {
+      Node[] children = path[d].children.clone();
+      children[index[d]] = last;
+      last = new Node(path[d].keys, children, path[d].ids);
+    }
+    return last;
+  }
+  
+  /** @return the node of the {@code key}, or {@code null} if not found */
+  public static Node find(Node root, String key) {
+    Node node = root;
+    for (int i=0; i<key.length() && node != null; i++) node = node.child(key.charAt(i));
+    return node;
+  }
+  
+  /** 
+   * Writes the ids of the trie in {@code out}, which must be large enough. 
+   * @return the number of ids written 
+   */
+  public static int collect(Node root, int[] out) {
+    int n = 0;
+    java.util.ArrayDeque<Node> stack = new java.util.ArrayDeque<>();
+    stack.push(root);
+    
+    // In depth-first order, iteratively to not overflow the stack with long keys
+    while (!stack.isEmpty()) {
+      Node node = stack.pop();
+      if (node.ids != null) {
+        System.arraycopy(node.ids, 0, out, n, node.ids.length);
+        n += node.ids.length;
+      }
+      for (int i=node.children.length-1; i>=0; i--) stack.push(node.children[i]);
+    }
+    return n;
+  }
+  
+  private static int[] append(int[] ids, int id) {
+    if (ids == null) return new int[] {id};
+    int[] n = Arrays.copyOf(ids, ids.length+1);
+    n[ids.length] = id;
+    return n;
+  }
+  
+  private static int indexOf(int[] ids, int id) {
+    if (ids == null) return -1;
+    for (int i=0; i<ids.length; i++) {
+      if (ids[i] == id) return i;
+    }
+    return -1;
+  }
+  
+  
+  public static class Node {
+    /** Sorted characters of children */
+    char[] keys;
+    Node[] children;
+    /** Ids of the key ending at this node, or {@code null} if none */
+    int[] ids;
+    
+    Node(char[] keys, Node[] children, int[] ids) {
+      this.keys = keys;
+      this.children = children;
+      this.ids = ids;
+    }
+    
+    /** @return the child of the character {@code c}, or {@code null} if none */
+    public Node child(char c) {
+      char[] k = keys;
+      // Most nodes have very few children
+      if (k.length <= 8) {
+        for (int i=0; i<k.length; i++) {
+          if (k[i] == c) return children[i];
+        }
+        return null;
+      }
+      int i = Arrays.binarySearch(k, c);
+      return i < 0 ? null : children[i];
+    }
+    
+    /** @return the ids of the key ending at this node, or {@code null} if none. Must not be modified. */
+    public int[] ids() {
+      return ids;
+    }
+  }
+  
+  
+  /** Builds a trie in place, faster than successive insertions. Nodes must not be read before {@link #build()}. */
+  public static class Builder {
+    private final Node root = new Node(new char[0], new Node[0], null);
+    
+    public void add(String key, int id) {
+      Node node = root;
+      for (int d=0; d<key.length(); d++) {
+        char c = key.charAt(d);
+        int i = Arrays.binarySearch(node.keys, c);
+        if (i < 0) {
+          i = -i-1;
+          node.keys = insertAt(node.keys, i, c);
+          Node[] children = new Node[node.children.length+1];
+          System.arraycopy(node.children, 0, children, 0, i);
+          System.arraycopy(node.children, i, children, i+1, node.children.length-i);
+          children[i] = new Node(new char[0], new Node[0], null);
+          node.children = children;
+        }
+        node = node.children[i];
+      }
+      node.ids = append(node.ids, id);
+    }
+    
+    public Node build() {
+      return root;
+    }
+    
+    private static char[] insertAt(char[] array, int i, char c) {
+      char[] n = new char[array.length+1];
+      System.arraycopy(array, 0, n, 0, i);
+      System.arraycopy(array, i, n, i+1, array.length-i);
+      n[i] = c;
+      return n;
+    }
+  }
+}
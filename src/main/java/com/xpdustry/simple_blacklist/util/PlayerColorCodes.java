@@ -101,15 +101,8 @@ public class PlayerColorCodes /*extends arc.util.ColorCodes*/ {
     values = map.values().toSeq().toArray(String.class);
   }
  
+  /** Replaces color codes of the {@code text}, in a single pass. */
   public static String apply(String text, boolean useColors) {
-    if (useColors) {
-      for (int i=0; i<codes.length; i++)
-        text = text.replace(prefix + codes[i], values[i]);
-    } else {
-      for (String c : codes)
-        text = text.replace(prefix + c, "");
-    }
-    
-    return text;
+    return Template.applyColors(text, useColors ? Template.Mode.player : Template.Mode.none);
   }
 }
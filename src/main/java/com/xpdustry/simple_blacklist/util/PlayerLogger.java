@@ -42,8 +42,7 @@ public class PlayerLogger extends Logger {
   
   /** Send a message to the player */
   public synchronized void send(String text, Object... args) {
-    text = Strings.format(text.replace("@", "&lb@&fr"), args);
-    player.sendMessage(PlayerColorCodes.apply(text, Log.useColors));
+    player.sendMessage(Template.get(text).render(Log.useColors ? Template.Mode.player : Template.Mode.none, true, args));
   }  
   
   @Override
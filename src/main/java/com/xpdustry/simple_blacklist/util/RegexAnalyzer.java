@@ -0,0 +1,440 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import arc.Core;
+import arc.func.Cons;
+import arc.struct.Seq;
+
+
+/** 
+ * Detection of regex with catastrophic backtracking. <br>
+ * Patterns are first analysed for nested or overlapping quantifiers, 
+ * then benchmarked against adversarial inputs of growing length, with a deadline. <br>
+ * Benchmarks are run in background by {@link #vet(Pattern, Logger, Cons)} and {@link #vetAll(Seq, String)}, 
+ * as they can take up to the deadline for each input.
+ */
+public class RegexAnalyzer {
+  private static final Logger logger = new Logger();
+  
+  /** Lengths of generated inputs. Nicknames are limited to 40 chars by the server. */
+  public static final int[] lengths = {10, 20, 40};
+  /** Default maximum time, in nanoseconds, of a match during the benchmark */
+  public static final long defaultDeadline = 20_000_000;
+  /** Characters that can be tested, the printable ASCII */
+  private static final char firstChar = ' ', lastChar = '~';
+  
+  /** 
+   * Looks for nested quantifiers, like {@code (a+)+}, quantified alternations with overlapping branches, 
+   * like {@code (a|ab)*}, and adjacent quantifiers matching the same chars, like {@code \w+\d+}.
+   * @return a description of each issue found, empty if none
+   */
+  public static Seq<String> analyse(String pattern) {
+    Seq<String> issues = new Seq<>();
+    Seq<Group> stack = new Seq<>();
+    stack.add(new Group(0));
+    Atom previous = null, last = null;
+    
+    for (int i=0; i<pattern.length();) {
+      char c = pattern.charAt(i);
+      Group group = stack.peek();
+      Atom atom = null;
+      
+      if (c == '(') {
+        Group g = new Group(i);
+        // Skip group flags, like '?:' or '?<name>'
+        i++;
+        if (i < pattern.length() && pattern.charAt(i) == '?') {
+          i++;
+          if (i < pattern.length() && pattern.charAt(i) == '<' && i+1 < pattern.length() && 
+              pattern.charAt(i+1) != '=' && pattern.charAt(i+1) != '!') {
+            while (i < pattern.length() && pattern.charAt(i) != '>') i++;
+          } else if (i < pattern.length() && pattern.charAt(i) == '>') g.atomic = true;
+          i++;
+        }
+        g.branchStart = i;
+        stack.add(g);
+        previous = last = null;
+        continue;
+        
+      } else if (c == ')' && stack.size > 1) {
+        stack.pop();
+        group.branches.add(pattern.substring(group.branchStart, i));
+        atom = new Atom(pattern.substring(group.start, i+1), null);
+        atom.group = group;
+        group.parent = stack.peek();
+        i++;
+        
+      } else if (c == '|') {
+        group.branches.add(pattern.substring(group.branchStart, i));
+        group.branchStart = ++i;
+        previous = last = null;
+        continue;
+        
+      } else if (c == '[') {
+        int end = classEnd(pattern, i);
+        atom = new Atom(pattern.substring(i, end), null);
+        i = end;
+        
+      } else if (c == '\\' && i+1 < pattern.length()) {
+        atom = new Atom(pattern.substring(i, i+2), null);
+        i += 2;
+        
+      } else if (c == '^' || c == '$') {
+        previous = last = null;
+        i++;
+        continue;
+        
+      } else {
+        atom = new Atom(String.valueOf(c), null);
+        i++;
+      }
+      
+      // Read the quantifier
+      int q = i;
+      boolean unbounded = false;
+      if (i < pattern.length()) {
+        char n = pattern.charAt(i);
+        if (n == '*' || n == '+') {
+          unbounded = true;
+          i++;
+        } else if (n == '?') i++;
+        else if (n == '{') {
+          int end = pattern.indexOf('}', i);
+          if (end != -1) {
+            String range = pattern.substring(i+1, end);
+            unbounded = range.endsWith(",") || 
+                        (range.contains(",") && Strings.parseInt(range.substring(range.indexOf(',')+1), 0) > 10);
+            i = end+1;
+          }
+        }
+        // Possessive quantifiers never backtrack
+        if (i > q && i < pattern.length() && pattern.charAt(i) == '+') {
+          unbounded = false;
+          i++;
+        } else if (i > q && i < pattern.length() && pattern.charAt(i) == '?') i++;
+      }
+      
+      if (unbounded) {
+        atom.quantified = true;
+        if (atom.group != null && !atom.group.atomic) {
+          if (atom.group.hasQuantifier) 
+            issues.add("nested quantifiers in '" + pattern.substring(atom.group.start, i) + "'");
+          else if (overlappingBranches(atom.group.branches)) 
+            issues.add("overlapping alternatives repeated in '" + pattern.substring(atom.group.start, i) + "'");
+        }
+        for (Group g = stack.peek(); g != null; g = g.parent) g.hasQuantifier = true;
+        
+        // Compare with the previous quantified atom, separated by optional atoms only
+        Atom before = last != null && last.quantified ? last : previous;
+        if (before != null && before.quantified && atom.group == null && before.group == null && 
+            before.chars() != null && atom.chars() != null && before.chars().intersects(atom.chars())) 
+          issues.add("adjacent quantifiers matching the same chars in '" + before.source + "' and '" + 
+                     atom.source + "'");
+        previous = atom;
+        
+      } else if (q == i || pattern.charAt(q) != '?') previous = null;
+      last = atom;
+    }
+    
+    return issues;
+  }
+  
+  /** 
+   * Analyses and benchmarks {@code pattern} in background, then logs issues to {@code logger} on the main thread. 
+   * Patterns reaching the deadline are refused.
+   * @param accepted called on the main thread with the benchmark result, if the pattern is not refused
+   */
+  public static void vet(Pattern pattern, Logger logger, Cons<Result> accepted) {
+    ForkJoinPool.commonPool().execute(() -> {
+      Result result = benchmark(pattern, defaultDeadline);
+      Seq<String> issues = analyse(pattern.pattern());
+      
+      Core.app.post(() -> {
+        if (result.timedOut) {
+          logger.err("Regex refused, a match took more than @ms with '@'.", 
+                     defaultDeadline / 1_000_000, result.worstInput);
+          return;
+        }
+        issues.each(i -> logger.warn("Regex may backtrack a lot: @.", i));
+        if (result.superLinear()) 
+          logger.warn("Regex matching time grows too fast with the nickname length (x@ when doubled).", 
+                      Strings.fixed(result.growth, 1));
+        accepted.get(result);
+      });
+    });
+  }
+  
+  /** 
+   * Vets {@code patterns} already in lists, read from {@code source}, in background, one after the other. <br>
+   * Unlike {@link #vet}, nothing is refused: a measure can be disturbed by the load, like at startup, 
+   * so issues are only logged with the pattern and its measured cost, and lists are left unchanged.
+   */
+  public static void vetAll(Seq<Pattern> patterns, String source) {
+    if (patterns.isEmpty()) return;
+    
+    ForkJoinPool.commonPool().execute(() -> {
+      for (Pattern pattern : patterns) {
+        Result result = benchmark(pattern, defaultDeadline);
+        if (result.timedOut) {
+          logger.warn("Regex '@' of @ may backtrack catastrophically, a match took more than @ms with '@'. "
+                    + "Consider removing it.", pattern.pattern(), source, defaultDeadline / 1_000_000, 
+                      result.worstInput);
+          continue;
+        }
+        analyse(pattern.pattern()).each(i -> 
+          logger.warn("Regex '@' of @ may backtrack a lot: @.", pattern.pattern(), source, i));
+        if (result.superLinear()) 
+          logger.warn("Regex '@' of @ matching time grows too fast with the nickname length (x@ when doubled, "
+                    + "worst @us with '@').", pattern.pattern(), source, Strings.fixed(result.growth, 1), 
+                      result.worstNanos / 1000, result.worstInput);
+      }
+    });
+  }
+  
+  /** 
+   * Measures the worst matching time of {@code pattern} against adversarial inputs of growing {@link #lengths}. 
+   * Each match is interrupted after {@code deadline} nanoseconds.
+   */
+  public static Result benchmark(Pattern pattern, long deadline) {
+    Seq<String> pumps = pumps(pattern.pattern());
+    char[] suffixes = {'!', '~', '0', ' '};
+    long[] worst = new long[lengths.length];
+    Result result = new Result();
+    result.pattern = pattern;
+    
+    for (int l=0; l<lengths.length; l++) {
+      for (String pump : pumps) {
+        StringBuilder builder = new StringBuilder(lengths[l]+1);
+        while (builder.length() < lengths[l]) builder.append(pump);
+        builder.setLength(lengths[l]);
+        
+        for (char suffix : suffixes) {
+          builder.setLength(lengths[l]);
+          String input = builder.append(suffix).toString();
+          // Take the best of a few runs, to reduce the noise
+          long best = Long.MAX_VALUE;
+          for (int run=0; run<3; run++) {
+            long time = time(pattern, input, deadline);
+            if (time < 0) {
+              result.timedOut = true;
+              result.worstNanos = deadline;
+              result.worstInput = input;
+              return result;
+            }
+            best = Math.min(best, time);
+          }
+          
+          if (best > worst[l]) worst[l] = best;
+          if (best > result.worstNanos) {
+            result.worstNanos = best;
+            result.worstInput = input;
+          }
+        }
+      }
+    }
+    
+    // Compare the growth between the last two lengths, ignoring too small durations
+    int n = lengths.length;
+    result.growth = worst[n-2] < 1000 ? 1f : (float)worst[n-1] / worst[n-2];
+    return result;
+  }
+  
+  /** @return the matching time, in nanoseconds, or {@code -1} if the deadline was reached */
+  private static long time(Pattern pattern, String input, long deadline) {
+    long start = System.nanoTime();
+    try { 
+      pattern.matcher(new DeadlineSequence(input, start + deadline)).matches(); 
+      return System.nanoTime() - start;
+    } catch (DeadlineSequence.Timeout e) { 
+      return -1; 
+    }
+  }
+  
+  /** @return strings to repeat to build inputs, from chars matched by atoms of the pattern */
+  private static Seq<String> pumps(String pattern) {
+    BitSet all = new BitSet();
+    Seq<String> pumps = new Seq<>();
+    
+    for (int i=0; i<pattern.length();) {
+      char c = pattern.charAt(i);
+      String atom;
+      if (c == '[') atom = pattern.substring(i, i = classEnd(pattern, i));
+      else if (c == '\\' && i+1 < pattern.length()) atom = pattern.substring(i, i += 2);
+      else if ("()|*+?{}^$".indexOf(c) != -1) {
+        i++;
+        continue;
+      } else atom = pattern.substring(i, ++i);
+      
+      BitSet chars = new Atom(atom, null).chars();
+      if (chars == null || chars.isEmpty()) continue;
+      char first = (char)(firstChar + chars.nextSetBit(0));
+      if (!all.get(first)) pumps.add(String.valueOf(first));
+      all.or(chars);
+    }
+    
+    // Also combine all chars, for patterns like (ab|a)*
+    StringBuilder builder = new StringBuilder();
+    for (String p : pumps) builder.append(p);
+    if (pumps.size > 1) pumps.add(builder.toString());
+    if (pumps.isEmpty()) pumps.add("a");
+    return pumps;
+  }
+  
+  private static boolean overlappingBranches(Seq<String> branches) {
+    for (int i=0; i<branches.size; i++) {
+      for (int j=i+1; j<branches.size; j++) {
+        String a = branches.get(i), b = branches.get(j);
+        if (a.isEmpty() || b.isEmpty() || a.startsWith(b) || b.startsWith(a)) return true;
+        // Single chars or classes matching the same chars
+        BitSet ca = new Atom(a, null).chars(), cb = new Atom(b, null).chars();
+        if (ca != null && cb != null && ca.intersects(cb)) return true;
+      }
+    }
+    return false;
+  }
+  
+  /** @return the index after the end of the char class starting at {@code start} */
+  private static int classEnd(String pattern, int start) {
+    int i = start + 1, depth = 1;
+    if (i < pattern.length() && pattern.charAt(i) == '^') i++;
+    if (i < pattern.length() && pattern.charAt(i) == ']') i++;
+    for (; i<pattern.length() && depth > 0; i++) {
+      char c = pattern.charAt(i);
+      if (c == '\\') i++;
+      else if (c == '[') depth++;
+      else if (c == ']') depth--;
+    }
+    return i;
+  }
+  
+  
+  public static class Result {
+    public Pattern pattern;
+    /** Whether a match reached the deadline */
+    public boolean timedOut;
+    /** Worst measured time, in nanoseconds */
+    public long worstNanos;
+    public String worstInput;
+    /** Ratio of worst times between the two last lengths, {@code 2} is linear as lengths are doubled */
+    public float growth;
+    
+    /** @return whether the time grows faster than quadratically */
+    public boolean superLinear() {
+      return timedOut || growth > 6f;
+    }
+  }
+  
+  
+  private static class Group {
+    final int start;
+    final Seq<String> branches = new Seq<>();
+    int branchStart;
+    boolean hasQuantifier, atomic;
+    Group parent;
+    
+    Group(int start) {
+      this.start = start;
+    }
+  }
+  
+  
+  private static class Atom {
+    final String source;
+    Group group;
+    boolean quantified;
+    private BitSet chars;
+    private boolean computed;
+    
+    Atom(String source, Group group) {
+      this.source = source;
+      this.group = group;
+    }
+    
+    /** @return printable ASCII chars matched by this atom, or {@code null} if not a single char atom */
+    BitSet chars() {
+      if (computed) return chars;
+      computed = true;
+      if (group != null) return null;
+      
+      Pattern p;
+      try { p = Pattern.compile(source); } 
+      catch (RuntimeException e) { return null; }
+      
+      chars = new BitSet();
+      char[] c = new char[1];
+      for (char i=firstChar; i<=lastChar; i++) {
+        c[0] = i;
+        if (p.matcher(new String(c)).matches()) chars.set(i - firstChar);
+      }
+      return chars;
+    }
+  }
+  
+  
+  /** Char sequence throwing an exception when read after a deadline, to interrupt a match. */
+  private static class DeadlineSequence implements CharSequence {
+    final String value;
+    final long deadline;
+    int reads;
+    
+    DeadlineSequence(String value, long deadline) {
+      this.value = value;
+      this.deadline = deadline;
+    }
+    
+    @Override
+    public char charAt(int index) {
+      // Checking the time on each read is too slow
+      if ((++reads & 0xff) == 0 && System.nanoTime() > deadline) throw new Timeout();
+      return value.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return value.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new DeadlineSequence(value.substring(start, end), deadline);
+    }
+    
+    @Override
+    public String toString() {
+      return value;
+    }
+    
+    static class Timeout extends RuntimeException {
+      Timeout() { super(null, null, false, false); }
+    }
+  }
+}
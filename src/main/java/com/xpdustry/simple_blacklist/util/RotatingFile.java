@@ -0,0 +1,141 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.GZIPOutputStream;
+
+
+/** 
+ * Append-only file, rotated when too big or too old. <br>
+ * Rotated files are renamed with their rotation time, optionally compressed with gzip, 
+ * and the oldest are deleted to keep at most {@link #maxFiles}. Not thread safe.
+ */
+public class RotatingFile {
+  public final File directory;
+  public final String name, extension;
+  public long maxSize, maxAge;
+  public int maxFiles;
+  public boolean gzip;
+  
+  private OutputStream out;
+  private long size, opened;
+  
+  /**
+   * @param maxSize in bytes, or {@code 0} for no limit
+   * @param maxAge in milliseconds, or {@code 0} for no limit
+   */
+  public RotatingFile(File directory, String name, String extension, long maxSize, long maxAge, int maxFiles, 
+                      boolean gzip) {
+    this.directory = directory;
+    this.name = name;
+    this.extension = extension;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+    this.maxFiles = maxFiles;
+    this.gzip = gzip;
+  }
+  
+  public File current() {
+    return new File(directory, name + extension);
+  }
+  
+  public void write(byte[] data, int length) throws IOException {
+    if (out == null) open();
+    else if ((maxSize > 0 && size + length > maxSize) || (maxAge > 0 && System.currentTimeMillis() - opened > maxAge))
+      rotate();
+    
+    out.write(data, 0, length);
+    size += length;
+  }
+  
+  public void flush() throws IOException {
+    if (out != null) out.flush();
+  }
+  
+  public void close() throws IOException {
+    if (out != null) out.close();
+    out = null;
+  }
+  
+  /** Closes the current file, renames it with the current time, and opens a new one. */
+  public void rotate() throws IOException {
+    close();
+    File file = current();
+    
+    if (file.length() > 0) {
+      String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+      File rotated = new File(directory, name + "-" + stamp + extension);
+      for (int i=1; rotated.exists() || new File(rotated.getPath() + ".gz").exists(); i++) 
+        rotated = new File(directory, name + "-" + stamp + "-" + i + extension);
+      
+      if (file.renameTo(rotated) && gzip) compress(rotated);
+      prune();
+    }
+    open();
+  }
+  
+  private void open() throws IOException {
+    directory.mkdirs();
+    File file = current();
+    out = new FileOutputStream(file, true);
+    size = file.length();
+    // The age of an existing file is unknown, use its last modification
+    opened = size > 0 ? Math.min(System.currentTimeMillis(), file.lastModified()) : System.currentTimeMillis();
+  }
+  
+  private static void compress(File file) throws IOException {
+    File gz = new File(file.getPath() + ".gz");
+    byte[] buffer = new byte[8192];
+    
+    try (InputStream in = new FileInputStream(file); 
+         OutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+      for (int n; (n = in.read(buffer)) != -1;) out.write(buffer, 0, n);
+    }
+    file.delete();
+  }
+  
+  /** Deletes the oldest rotated files */
+  private void prune() {
+    if (maxFiles <= 0) return;
+    File[] files = directory.listFiles((d, n) -> n.startsWith(name + "-") && 
+                                                 (n.endsWith(extension) || n.endsWith(extension + ".gz")));
+    if (files == null || files.length <= maxFiles) return;
+    
+    Arrays.sort(files, (a, b) -> a.lastModified() != b.lastModified() ? Long.compare(a.lastModified(), b.lastModified())
+                                                                       : a.getName().compareTo(b.getName()));
+    for (int i=0; i<files.length-maxFiles; i++) files[i].delete();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import arc.struct.ObjectIntMap;
+
+
+/** 
+ * Table of interned strings, identified by an index. <br>
+ * Strings are reference counted and freed when no longer used, so the table never exceeds its capacity.
+ * Not thread safe.
+ */
+public class StringTable {
+  private final String[] values;
+  private final int[] refs, free;
+  private final ObjectIntMap<String> index;
+  private int freeSize;
+  
+  public StringTable(int capacity) {
+    values = new String[capacity];
+    refs = new int[capacity];
+    free = new int[capacity];
+    index = new ObjectIntMap<>(capacity);
+    for (int i=0; i<capacity; i++) free[i] = capacity-i-1;
+    freeSize = capacity;
+  }
+  
+  /** 
+   * Adds a reference to the {@code value}. 
+   * @return the index of the value, or {@code -1} if {@code null} or if the table is full.
+   */
+  public int intern(String value) {
+    if (value == null) return -1;
+    int id = index.get(value, -1);
+    if (id != -1) {
+      refs[id]++;
+      return id;
+    }
+    
+    if (freeSize == 0) return -1;
+    id = free[--freeSize];
+    values[id] = value;
+    refs[id] = 1;
+    index.put(value, id);
+    return id;
+  }
+  
+  /** Removes a reference to the value at {@code id}, and frees it if it was the last one. */
+  public void release(int id) {
+    if (id < 0 || --refs[id] > 0) return;
+    index.remove(values[id], -1);
+    values[id] = null;
+    free[freeSize++] = id;
+  }
+  
+  /** @return the value at {@code id}, or {@code null} if {@code -1} */
+  public String get(int id) {
+    return id < 0 ? null : values[id];
+  }
+  
+  public int size() {
+    return values.length - freeSize;
+  }
+}
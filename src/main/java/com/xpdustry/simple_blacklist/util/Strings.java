@@ -246,6 +246,51 @@ public class Strings extends arc.util.Strings {
     }
   }
 
+  /** 
+   * Parses a duration like {@code 2h}, {@code 1d12h} or {@code 30m}. 
+   * Units are {@code s}, {@code m}, {@code h}, {@code d} and {@code w}.
+   * @return the duration in milliseconds, or {@code -1} if invalid
+   */
+  public static long parseDuration(String str) {
+    if (str == null || str.isEmpty()) return -1;
+    long total = 0, value = -1;
+    
+    for (int i=0; i<str.length(); i++) {
+      char c = str.charAt(i);
+      if (c >= '0' && c <= '9') {
+        value = (value == -1 ? 0 : value) * 10 + (c - '0');
+        if (value > Integer.MAX_VALUE) return -1;
+        continue;
+      }
+      if (value == -1) return -1;
+      
+      switch (Character.toLowerCase(c)) {
+        case 's': total += value * 1000L; break;
+        case 'm': total += value * 60_000L; break;
+        case 'h': total += value * 3_600_000L; break;
+        case 'd': total += value * 86_400_000L; break;
+        case 'w': total += value * 604_800_000L; break;
+        default: return -1;
+      }
+      value = -1;
+    }
+    
+    // A number without unit is invalid
+    return value != -1 || total <= 0 ? -1 : total;
+  }
+  
+  /** @return the duration, in milliseconds, formatted like {@code 1d2h3m} */
+  public static String formatDuration(long millis) {
+    long seconds = Math.max(0, millis / 1000);
+    if (seconds < 60) return seconds + "s";
+    
+    StringBuilder builder = new StringBuilder();
+    if (seconds >= 86400) builder.append(seconds / 86400).append('d');
+    if (seconds % 86400 >= 3600) builder.append(seconds % 86400 / 3600).append('h');
+    if (seconds % 3600 >= 60) builder.append(seconds % 3600 / 60).append('m');
+    return builder.toString();
+  }
+
   public static String jsonPrettyPrint(JsonValue object, OutputType outputType) {
     StringWriter out = new StringWriter();
     try { jsonPrettyPrint(object, out, outputType, 0); } 
@@ -0,0 +1,221 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/** 
+ * Message format compiled once in literal segments, color codes and argument slots ({@code @}). <br>
+ * Rendering is done in a single pass, for the console, for players or without colors. <br>
+ * Color codes inside arguments are also applied, like {@link arc.util.Log#format(String, Object...)} does. 
+ * A doubled prefix, {@code &&}, is an escaped {@code &}.
+ */
+public class Template {
+  /** Maximum number of cached templates, the cache is cleared when reached */
+  public static final int maxCached = 512;
+  
+  private static final ConcurrentHashMap<String, Template> cache = new ConcurrentHashMap<>();
+  private static final byte LITERAL = 0, COLOR = 1, ARGUMENT = 2;
+  /** Color code names, and their values for each {@link Mode} */
+  private static final String[] codes = PlayerColorCodes.codes;
+  private static final String[][] values = new String[Mode.values().length][];
+  private static final int lightBlue, reset;
+  
+  static {
+    String[] console = new String[codes.length], player = new String[codes.length], none = new String[codes.length];
+    for (int i=0; i<codes.length; i++) {
+      player[i] = PlayerColorCodes.values[i];
+      none[i] = "";
+      console[i] = "";
+      for (int j=0; j<arc.util.ColorCodes.codes.length; j++) {
+        if (arc.util.ColorCodes.codes[j].equals(codes[i])) console[i] = arc.util.ColorCodes.values[j];
+      }
+    }
+    values[Mode.console.ordinal()] = console;
+    values[Mode.player.ordinal()] = player;
+    values[Mode.none.ordinal()] = none;
+    lightBlue = codeIndex("lb", 0, 2);
+    reset = codeIndex("fr", 0, 2);
+  }
+  
+  
+  private final byte[] kinds;
+  private final String[] literals;
+  private final int[] indexes;
+  private final int length;
+
+  protected Template(String format) {
+    byte[] k = new byte[8];
+    String[] l = new String[8];
+    int[] ix = new int[8];
+    int n = 0, start = 0, len = format.length();
+    
+    for (int i=0; i<len; i++) {
+      char c = format.charAt(i);
+      int code = -1, size = 0;
+      
+      if (c == '@') size = 1;
+      else if (c == PlayerColorCodes.prefix.charAt(0)) {
+        if (i+1 < len && format.charAt(i+1) == c) {
+          code = -2;
+          size = 2;
+        } else if ((code = codeIndex(format, i+1, 2)) != -1) size = 3;
+        else if ((code = codeIndex(format, i+1, 1)) != -1) size = 2;
+      }
+      if (size == 0) continue;
+      
+      if (n + 2 > k.length) {
+        k = java.util.Arrays.copyOf(k, k.length * 2);
+        l = java.util.Arrays.copyOf(l, l.length * 2);
+        ix = java.util.Arrays.copyOf(ix, ix.length * 2);
+      }
+      if (i > start) {
+        k[n] = LITERAL;
+        l[n++] = format.substring(start, i);
+      }
+      if (code == -2) {
+        k[n] = LITERAL;
+        l[n++] = PlayerColorCodes.prefix;
+      } else {
+        k[n] = code == -1 ? ARGUMENT : COLOR;
+        ix[n++] = code;
+      }
+      start = i + size;
+      i += size - 1;
+    }
+    if (start < len) {
+      if (n + 1 > k.length) {
+        k = java.util.Arrays.copyOf(k, k.length + 1);
+        l = java.util.Arrays.copyOf(l, l.length + 1);
+        ix = java.util.Arrays.copyOf(ix, ix.length + 1);
+      }
+      k[n] = LITERAL;
+      l[n++] = format.substring(start);
+    }
+    
+    kinds = java.util.Arrays.copyOf(k, n);
+    literals = java.util.Arrays.copyOf(l, n);
+    indexes = java.util.Arrays.copyOf(ix, n);
+    length = len;
+  }
+  
+  /** @return the compiled template of {@code format}, from the cache if possible */
+  public static Template get(String format) {
+    Template template = cache.get(format);
+    if (template == null) {
+      if (cache.size() >= maxCached) cache.clear();
+      template = new Template(format);
+      cache.put(format, template);
+    }
+    return template;
+  }
+  
+  /** Shortcut of {@code get(format).render(mode, false, args)} */
+  public static String format(Mode mode, String format, Object... args) {
+    return get(format).render(mode, false, args);
+  }
+  
+  /** Applies the color codes of {@code text}, in a single pass, without compiling it. */
+  public static String applyColors(String text, Mode mode) {
+    if (text.indexOf(PlayerColorCodes.prefix.charAt(0)) == -1) return text;
+    StringBuilder builder = new StringBuilder(text.length());
+    appendColored(builder, text, values[mode.ordinal()]);
+    return builder.toString();
+  }
+  
+  /** 
+   * @param highlight whether arguments should be highlighted in light blue
+   * @param args replaces the {@code @}, in order. Remaining {@code @} are kept if there is not enough.
+   */
+  public String render(Mode mode, boolean highlight, Object... args) {
+    String[] colors = values[mode.ordinal()];
+    StringBuilder builder = new StringBuilder(length + args.length * 16);
+    int arg = 0;
+    
+    for (int i=0; i<kinds.length; i++) {
+      switch (kinds[i]) {
+        case LITERAL: builder.append(literals[i]); break;
+        case COLOR: builder.append(colors[indexes[i]]); break;
+        case ARGUMENT:
+          if (arg >= args.length) {
+            builder.append('@');
+            break;
+          }
+          if (highlight) builder.append(colors[lightBlue]);
+          appendColored(builder, String.valueOf(args[arg++]), colors);
+          if (highlight) builder.append(colors[reset]);
+          break;
+      }
+    }
+    
+    return builder.toString();
+  }
+  
+  private static void appendColored(StringBuilder builder, String text, String[] colors) {
+    char prefix = PlayerColorCodes.prefix.charAt(0);
+    int start = 0, len = text.length();
+    
+    for (int i=text.indexOf(prefix); i != -1 && i < len; i=text.indexOf(prefix, i)) {
+      int code, size;
+      if (i+1 < len && text.charAt(i+1) == prefix) {
+        builder.append(text, start, i+1);
+        start = i += 2;
+        continue;
+      } else if ((code = codeIndex(text, i+1, 2)) != -1) size = 3;
+      else if ((code = codeIndex(text, i+1, 1)) != -1) size = 2;
+      else {
+        i++;
+        continue;
+      }
+      
+      builder.append(text, start, i).append(colors[code]);
+      start = i += size;
+    }
+    builder.append(text, start, len);
+  }
+  
+  /** @return the index of the code of {@code size} chars at {@code offset}, or {@code -1} if not a code */
+  private static int codeIndex(String text, int offset, int size) {
+    if (offset + size > text.length()) return -1;
+    for (int i=0; i<codes.length; i++) {
+      String code = codes[i];
+      if (code.length() == size && text.startsWith(code, offset)) return i;
+    }
+    return -1;
+  }
+  
+  
+  public static enum Mode {
+    /** Console colors, from {@link arc.util.ColorCodes} */
+    console, 
+    /** In-game colors, from {@link PlayerColorCodes} */
+    player, 
+    /** Color codes are removed */
+    none
+  }
+}
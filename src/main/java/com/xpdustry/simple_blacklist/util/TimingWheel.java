@@ -0,0 +1,133 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+import arc.func.Cons;
+
+
+/** 
+ * Hashed timing wheel, to expire values at a given time. <br>
+ * Values are hashed in slots by their deadline tick, so scheduling and cancelling are O(1), 
+ * and advancing only visits the slots of elapsed ticks. Not thread safe.
+ */
+public class TimingWheel<T> {
+  private final Node<T>[] slots;
+  private final int mask;
+  private final long tickMillis;
+  private long currentTick;
+  private int size;
+  
+  /** 
+   * @param slots number of slots, rounded up to a power of two
+   * @param tickMillis duration of a tick, which is the precision of deadlines
+   */
+  @SuppressWarnings("unchecked")
+  public TimingWheel(int slots, long tickMillis, long now) {
+    int n = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+    this.slots = new Node[n];
+    this.mask = n - 1;
+    this.tickMillis = tickMillis;
+    this.currentTick = now / tickMillis;
+  }
+  
+  /** Schedules the {@code value} to expire at {@code deadline}, in milliseconds. */
+  public Node<T> schedule(T value, long deadline) {
+    Node<T> node = new Node<>(value, deadline);
+    // Deadlines already reached are expired at the next advance
+    node.tick = Math.max(currentTick + 1, (deadline + tickMillis - 1) / tickMillis);
+    node.slot = (int)(node.tick & mask);
+    
+    node.next = slots[node.slot];
+    if (node.next != null) node.next.prev = node;
+    slots[node.slot] = node;
+    size++;
+    return node;
+  }
+  
+  /** @return {@code false} if the node was already expired or cancelled */
+  public boolean cancel(Node<T> node) {
+    if (node == null || node.slot == -1) return false;
+    unlink(node);
+    return true;
+  }
+  
+  /** Expires all values with a deadline before {@code now}, in order of slots. */
+  public void advance(long now, Cons<T> expired) {
+    long end = now / tickMillis;
+    // After a long pause, each slot only needs to be visited once
+    long steps = Math.min(end - currentTick, slots.length);
+    
+    for (long i=1; i<=steps; i++) {
+      Node<T> node = slots[(int)((currentTick + i) & mask)];
+      while (node != null) {
+        Node<T> next = node.next;
+        if (node.tick <= end) {
+          unlink(node);
+          expired.get(node.value);
+        }
+        node = next;
+      }
+    }
+    if (end > currentTick) currentTick = end;
+  }
+  
+  public void clear() {
+    for (int i=0; i<slots.length; i++) {
+      for (Node<T> node = slots[i]; node != null; node = node.next) node.slot = -1;
+      slots[i] = null;
+    }
+    size = 0;
+  }
+  
+  public int size() {
+    return size;
+  }
+  
+  private void unlink(Node<T> node) {
+    if (node.prev != null) node.prev.next = node.next;
+    else slots[node.slot] = node.next;
+    if (node.next != null) node.next.prev = node.prev;
+    node.prev = node.next = null;
+    node.slot = -1;
+    size--;
+  }
+  
+  
+  public static class Node<T> {
+    public final T value;
+    /** Deadline, in milliseconds */
+    public final long deadline;
+    long tick;
+    int slot;
+    Node<T> prev, next;
+    
+    Node(T value, long deadline) {
+      this.value = value;
+      this.deadline = deadline;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Simple Blacklist.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2025 Xpdustry
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.xpdustry.simple_blacklist.util;
+
+
+/** 
+ * Token buckets stored in a primitive open-addressing map, keyed by {@code long}. <br>
+ * Buckets that have been refilled since their last use are equivalent to absent ones, 
+ * so they are evicted when the table needs more space.
+ */
+public class TokenBucketMap {
+  private static final int maxCapacity = 1 << 20;
+  
+  private long[] keys;
+  private float[] tokens;
+  /** Last update time of buckets, {@code 0} means an empty slot */
+  private long[] stamps;
+  private int size, mask, threshold;
+
+  public TokenBucketMap() { this(1024); }
+  public TokenBucketMap(int initialCapacity) {
+    allocate(Math.max(16, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1));
+  }
+  
+  /** 
+   * Takes a token in the bucket of {@code key}. 
+   * @param now the current time in milliseconds
+   * @param burst the size of buckets
+   * @param ratePerMillis the number of tokens given back every milliseconds
+   * @return whether a token was available
+   */
+  public synchronized boolean tryAcquire(long key, long now, float burst, float ratePerMillis) {
+    if (burst < 1) return false;
+    if (now <= 0) now = 1; // 0 is reserved for empty slots
+    
+    int i = index(key);
+    for (; stamps[i] != 0; i = (i + 1) & mask) {
+      if (keys[i] != key) continue;
+      
+      float t = Math.min(burst, tokens[i] + (now - stamps[i]) * ratePerMillis);
+      stamps[i] = now;
+      if (t < 1) {
+        tokens[i] = t;
+        return false;
+      }
+      tokens[i] = t - 1;
+      return true;
+    }
+    
+    // New bucket
+    if (size >= threshold) {
+      evict(now, burst, ratePerMillis);
+      // Fail open if the table is full of active buckets
+      if (size >= threshold) return true;
+      i = index(key);
+      while (stamps[i] != 0) i = (i + 1) & mask;
+    }
+    
+    keys[i] = key;
+    tokens[i] = burst - 1;
+    stamps[i] = now;
+    size++;
+    return true;
+  }
+  
+  /** Removes all buckets that are full again, and resize the table if needed. */
+  public synchronized void evict(long now, float burst, float ratePerMillis) {
+    long[] oldKeys = keys, oldStamps = stamps;
+    float[] oldTokens = tokens;
+    int alive = 0;
+    
+    for (int i=0; i<oldStamps.length; i++) {
+      if (oldStamps[i] != 0 && oldTokens[i] + (now - oldStamps[i]) * ratePerMillis < burst) alive++;
+    }
+    
+    int capacity = oldKeys.length;
+    // Grow when the table stays more than half full after eviction
+    if (alive >= threshold / 2 && capacity < maxCapacity) capacity <<= 1;
+    allocate(capacity);
+    
+    for (int i=0; i<oldStamps.length; i++) {
+      if (oldStamps[i] == 0 || oldTokens[i] + (now - oldStamps[i]) * ratePerMillis >= burst) continue;
+      int j = index(oldKeys[i]);
+      while (stamps[j] != 0) j = (j + 1) & mask;
+      keys[j] = oldKeys[i];
+      tokens[j] = oldTokens[i];
+      stamps[j] = oldStamps[i];
+      size++;
+    }
+  }
+
+  public synchronized void clear() {
+    java.util.Arrays.fill(stamps, 0);
+    size = 0;
+  }
+  
+  public synchronized int size() {
+    return size;
+  }
+  
+  private int index(long key) {
+    return (int)Addresses.mix(key) & mask;
+  }
+  
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    tokens = new float[capacity];
+    stamps = new long[capacity];
+    mask = capacity - 1;
+    threshold = capacity / 2;
+    size = 0;
+  }
+}